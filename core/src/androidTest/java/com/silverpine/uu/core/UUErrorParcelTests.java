@@ -0,0 +1,184 @@
+package com.silverpine.uu.core;
+
+import android.os.BadParcelableException;
+import android.os.Parcel;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+public class UUErrorParcelTests
+{
+    /**
+     * Exception with no (String) constructor, so it cannot be recreated from a parcel
+     */
+    public static class NoMessageConstructorException extends Exception
+    {
+        public NoMessageConstructorException(final int code)
+        {
+            super("code " + code);
+        }
+    }
+
+    private static UUError roundTrip(final UUError error)
+    {
+        Parcel parcel = Parcel.obtain();
+
+        try
+        {
+            error.writeToParcel(parcel, 0);
+            parcel.setDataPosition(0);
+            return UUError.CREATOR.createFromParcel(parcel);
+        }
+        finally
+        {
+            parcel.recycle();
+        }
+    }
+
+    @Test
+    public void testUserInfoRoundTrip() throws Exception
+    {
+        UUError error = new UUError("test", 1);
+        error.addUserInfo("string", "value");
+        error.addUserInfo("boolean", true);
+        error.addUserInfo("int", 42);
+        error.addUserInfo("long", 1L << 40);
+        error.addUserInfo("double", 2.5);
+        error.addUserInfo("null", JSONObject.NULL);
+        error.addUserInfo("array", new JSONArray().put(1).put("two").put(JSONObject.NULL).put(new JSONArray().put(3.5)));
+        error.addUserInfo("object", new JSONObject().put("nested", new JSONObject().put("deep", 7L)));
+
+        UUError copy = roundTrip(error);
+        JSONObject userInfo = copy.getUserInfo();
+
+        Assert.assertNotNull(userInfo);
+        Assert.assertTrue(UUJson.deepEquals(error.getUserInfo(), userInfo));
+        Assert.assertTrue(userInfo.get("long") instanceof Long);
+        Assert.assertTrue(userInfo.get("double") instanceof Double);
+        Assert.assertEquals(JSONObject.NULL, userInfo.get("null"));
+        Assert.assertEquals(7L, userInfo.getJSONObject("object").getJSONObject("nested").getLong("deep"));
+        Assert.assertEquals(error, copy);
+    }
+
+    @Test
+    public void testChainRoundTrip()
+    {
+        UUError error = new UUError("outer", 1, new UUError("middle", 2, new UUError("inner", 3)));
+        error.addUserInfo("key", "value");
+
+        UUError copy = roundTrip(error);
+
+        Assert.assertEquals(error, copy);
+        Assert.assertEquals("inner", copy.getUnderlyingError().getUnderlyingError().getDomain());
+        Assert.assertNull(copy.getUnderlyingError().getUnderlyingError().getUnderlyingError());
+    }
+
+    @Test
+    public void testChainDepthCap()
+    {
+        UUError error = new UUError("error", 0);
+        for (int i = 1; i < 100; i++)
+        {
+            error = new UUError("error", i, error);
+        }
+
+        UUError copy = roundTrip(error);
+
+        int depth = 0;
+        for (UUError e = copy; e != null; e = e.getUnderlyingError())
+        {
+            depth++;
+        }
+
+        Assert.assertEquals(64, depth);
+        Assert.assertEquals(99, copy.getCode());
+    }
+
+    @Test
+    public void testExceptionRoundTrip()
+    {
+        IllegalStateException exception = new IllegalStateException("boom");
+        UUError copy = roundTrip(new UUError("test", 1, exception));
+
+        Exception copied = copy.getException();
+        Assert.assertNotNull(copied);
+        Assert.assertEquals(IllegalStateException.class, copied.getClass());
+        Assert.assertEquals("boom", copied.getMessage());
+
+        StackTraceElement[] frames = exception.getStackTrace();
+        StackTraceElement[] copiedFrames = copied.getStackTrace();
+        Assert.assertEquals(Math.min(frames.length, 32), copiedFrames.length);
+        Assert.assertEquals(frames[0].getClassName(), copiedFrames[0].getClassName());
+        Assert.assertEquals(frames[0].getMethodName(), copiedFrames[0].getMethodName());
+        Assert.assertEquals(frames[0].getLineNumber(), copiedFrames[0].getLineNumber());
+    }
+
+    @Test
+    public void testExceptionFallback()
+    {
+        UUError copy = roundTrip(new UUError("test", 1, new NoMessageConstructorException(5)));
+
+        Exception copied = copy.getException();
+        Assert.assertNotNull(copied);
+        Assert.assertEquals(Exception.class, copied.getClass());
+        Assert.assertEquals(NoMessageConstructorException.class.getName() + ": code 5", copied.getMessage());
+    }
+
+    @Test
+    public void testOversizedCountRejected()
+    {
+        Parcel parcel = Parcel.obtain();
+
+        try
+        {
+            parcel.writeInt(1);
+            parcel.writeString("test");
+            parcel.writeInt(1);
+            parcel.writeInt(Integer.MAX_VALUE);
+            parcel.setDataPosition(0);
+
+            UUError.CREATOR.createFromParcel(parcel);
+            Assert.fail("Expected the userInfo count to be rejected");
+        }
+        catch (BadParcelableException ex)
+        {
+            // Expected
+        }
+        finally
+        {
+            parcel.recycle();
+        }
+    }
+
+    @Test
+    public void testDeepNestingTruncated() throws Exception
+    {
+        JSONArray deep = new JSONArray().put("leaf");
+        for (int i = 0; i < 100; i++)
+        {
+            deep = new JSONArray().put(deep);
+        }
+
+        UUError error = new UUError("test", 1);
+        error.addUserInfo("deep", deep);
+
+        UUError copy = roundTrip(error);
+
+        int depth = 0;
+        Object value = copy.getUserInfo().get("deep");
+        while (value instanceof JSONArray)
+        {
+            depth++;
+            value = ((JSONArray) value).get(0);
+        }
+
+        Assert.assertEquals(31, depth);
+        Assert.assertEquals(JSONObject.NULL, value);
+    }
+}
@@ -0,0 +1,27 @@
+package com.silverpine.uu.core;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+@RunWith(AndroidJUnit4.class)
+public class UUStreamDelegateTests
+{
+    @Test
+    public void testCollectDeliversNullOnFailure()
+    {
+        ArrayList<ArrayList<Integer>> results = new ArrayList<>();
+        UUStreamEmitter<Integer> emitter = new UUStreamEmitter<>(UUStreamDelegate.collect(results::add), null);
+
+        emitter.emit(new ArrayList<>(Arrays.asList(1, 2)));
+        emitter.fail(new IllegalStateException("boom"));
+
+        Assert.assertEquals(1, results.size());
+        Assert.assertNull(results.get(0));
+    }
+}
@@ -0,0 +1,111 @@
+package com.silverpine.uu.core;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(AndroidJUnit4.class)
+public class UUTimerTests
+{
+    @Test
+    public void testOneShotRestartFromDelegate() throws Exception
+    {
+        CountDownLatch latch = new CountDownLatch(2);
+        AtomicInteger fireCount = new AtomicInteger();
+
+        UUTimer timer = new UUTimer("testOneShotRestartFromDelegate", 20, false, null, (t, userInfo) ->
+        {
+            if (fireCount.incrementAndGet() == 1)
+            {
+                t.restart();
+            }
+
+            latch.countDown();
+        });
+
+        timer.start();
+
+        Assert.assertTrue(latch.await(2, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        Assert.assertEquals(2, fireCount.get());
+        Assert.assertNull(UUTimer.findActiveTimer("testOneShotRestartFromDelegate"));
+    }
+
+    @Test
+    public void testRestartTimerFromDelegate() throws Exception
+    {
+        String timerId = "testRestartTimerFromDelegate";
+        CountDownLatch latch = new CountDownLatch(2);
+        AtomicInteger fireCount = new AtomicInteger();
+
+        UUTimer.startTimer(timerId, 20, null, new UUTimer.TimerDelegate()
+        {
+            @Override
+            public void onTimer(final UUTimer timer, final Object userInfo)
+            {
+                if (fireCount.incrementAndGet() == 1)
+                {
+                    UUTimer.restartTimer(timerId, 20, null, this);
+                }
+
+                latch.countDown();
+            }
+        });
+
+        Assert.assertTrue(latch.await(2, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        Assert.assertEquals(2, fireCount.get());
+    }
+
+    @Test
+    public void testBackgroundOneShotRestartFromDelegate() throws Exception
+    {
+        CountDownLatch latch = new CountDownLatch(2);
+        AtomicInteger fireCount = new AtomicInteger();
+
+        UUTimer timer = new UUTimer("testBackgroundOneShotRestartFromDelegate", 20, false, null, (t, userInfo) ->
+        {
+            if (fireCount.incrementAndGet() == 1)
+            {
+                t.restart();
+            }
+
+            latch.countDown();
+        });
+
+        timer.setDispatchTarget(UUTimer.DispatchTarget.BACKGROUND);
+        timer.start();
+
+        Assert.assertTrue(latch.await(2, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        Assert.assertEquals(2, fireCount.get());
+    }
+
+    @Test
+    public void testBackgroundDelegatesDoNotOverlap() throws Exception
+    {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        UUTimer timer = new UUTimer("testBackgroundDelegatesDoNotOverlap", 5, true, null, (t, userInfo) ->
+        {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            UUThread.safeSleep("testBackgroundDelegatesDoNotOverlap", 50);
+            running.decrementAndGet();
+        });
+
+        timer.setDispatchTarget(UUTimer.DispatchTarget.BACKGROUND);
+        timer.start();
+        Thread.sleep(300);
+        timer.cancel();
+
+        Assert.assertEquals(1, maxRunning.get());
+        Assert.assertTrue(timer.getSkippedDelegateCount() > 0);
+    }
+}
@@ -0,0 +1,157 @@
+package com.silverpine.uu.core;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(AndroidJUnit4.class)
+public class UUTimingWheelSchedulerTests
+{
+    /**
+     * Executor that only runs work when the test drains it
+     */
+    private static final class ManualExecutor implements UUExecutor
+    {
+        private final ArrayList<Runnable> queue = new ArrayList<>();
+        private int runInlineCount = 0;
+
+        @NonNull
+        @Override
+        public String getName()
+        {
+            return "manual";
+        }
+
+        @Override
+        public void post(@NonNull final Runnable runnable)
+        {
+            queue.add(runnable);
+        }
+
+        @Override
+        public void postDelayed(@NonNull final Runnable runnable, final long delayMillis)
+        {
+            // Runs the post straight away, as a second pool thread would
+            if (runInlineCount > 0)
+            {
+                runInlineCount--;
+                runnable.run();
+                return;
+            }
+
+            queue.add(runnable);
+        }
+
+        @Override
+        public void removeRunnable(@NonNull final Runnable runnable)
+        {
+            queue.remove(runnable);
+        }
+
+        @Override
+        public boolean isCurrentThread()
+        {
+            return true;
+        }
+
+        @Override
+        public boolean isStarted()
+        {
+            return true;
+        }
+
+        @Override
+        public void shutdown()
+        {
+            queue.clear();
+        }
+
+        private void runPending()
+        {
+            ArrayList<Runnable> pending = new ArrayList<>(queue);
+            queue.clear();
+
+            for (Runnable r : pending)
+            {
+                r.run();
+            }
+        }
+    }
+
+    @Test
+    public void testRestartDuringTickDoesNotFireStaleDeadline() throws Exception
+    {
+        ManualExecutor executor = new ManualExecutor();
+        UUTimingWheelScheduler wheel = new UUTimingWheelScheduler(executor, 10, 64);
+        UUTimerScheduler previous = UUTimer.getScheduler();
+        UUTimer.setScheduler(wheel);
+
+        try
+        {
+            AtomicInteger secondFired = new AtomicInteger();
+            UUTimer second = new UUTimer("second", 10, false, null, (t, userInfo) -> secondFired.incrementAndGet());
+
+            // Restarts the second timer while both are expired in the same tick
+            UUTimer first = new UUTimer("first", 10, false, null, (t, userInfo) -> second.restart(1000));
+
+            // Same deadline, and later links run first, so the first timer fires first
+            second.start();
+            first.start();
+
+            Thread.sleep(50);
+            executor.runPending();
+
+            Assert.assertEquals(0, secondFired.get());
+            Assert.assertTrue(second.isPending());
+            Assert.assertEquals(1, wheel.getScheduledCount());
+
+            second.cancel();
+        }
+        finally
+        {
+            UUTimer.setScheduler(previous);
+        }
+    }
+
+    @Test
+    public void testScheduleFromDelegateDuringTick() throws Exception
+    {
+        ManualExecutor executor = new ManualExecutor();
+        UUTimingWheelScheduler wheel = new UUTimingWheelScheduler(executor, 10, 64);
+        UUTimerScheduler previous = UUTimer.getScheduler();
+        UUTimer.setScheduler(wheel);
+
+        try
+        {
+            AtomicInteger secondFired = new AtomicInteger();
+            UUTimer second = new UUTimer("second", 10, false, null, (t, userInfo) -> secondFired.incrementAndGet());
+            UUTimer third = new UUTimer("third", 1000, false, null, (t, userInfo) -> { });
+
+            // Starting a timer once the wheel has emptied posts a new tick, which runs while
+            // this tick is still firing
+            UUTimer first = new UUTimer("first", 10, false, null, (t, userInfo) -> third.start());
+
+            second.start();
+            first.start();
+
+            Thread.sleep(50);
+            executor.runInlineCount = 1;
+            executor.runPending();
+
+            Assert.assertEquals(1, secondFired.get());
+            Assert.assertTrue(third.isPending());
+
+            third.cancel();
+        }
+        finally
+        {
+            UUTimer.setScheduler(previous);
+        }
+    }
+}
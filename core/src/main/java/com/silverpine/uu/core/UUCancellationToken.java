@@ -0,0 +1,269 @@
+package com.silverpine.uu.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.silverpine.uu.logging.UULog;
+
+/**
+ * Cancellation scope for a tree of pending work.
+ *
+ * Pass a token to UUThread.runOnBackgroundThread, UUExecutor.post, UUWorkerThread.post or
+ * UUTimer.start, and cancelling the token pulls every piece of work still waiting in a queue,
+ * cancels timers, and cancels all child tokens.  Work that is already running is not
+ * interrupted, but can poll isCancelled.
+ *
+ * A typical pattern is one token per screen or connection, with child tokens for sub tasks, and a
+ * single cancel on teardown.
+ */
+@SuppressWarnings("unused")
+public class UUCancellationToken
+{
+    /**
+     * Removes a runnable from whatever queue it was posted to
+     */
+    public interface Remover
+    {
+        void remove(@NonNull final Runnable runnable);
+    }
+
+    private final @Nullable UUCancellationToken parent;
+    private final @NonNull Runnable parentCallback;
+    private @Nullable Set<Runnable> callbacks = null;
+    private volatile boolean cancelled = false;
+
+    /**
+     * Creates a root token
+     */
+    public UUCancellationToken()
+    {
+        this(null);
+    }
+
+    private UUCancellationToken(@Nullable final UUCancellationToken parent)
+    {
+        this.parent = parent;
+        this.parentCallback = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                cancel();
+            }
+        };
+
+        if (parent != null)
+        {
+            parent.register(parentCallback);
+        }
+    }
+
+    /**
+     * Creates a child token.  Cancelling this token cancels the child, but not the other way round.
+     *
+     * @return a new child token, already cancelled if this token is
+     */
+    @NonNull
+    public UUCancellationToken createChild()
+    {
+        return new UUCancellationToken(this);
+    }
+
+    /**
+     * Checks if the token has been cancelled
+     *
+     * @return true if cancelled
+     */
+    public boolean isCancelled()
+    {
+        return cancelled;
+    }
+
+    /**
+     * Registers a callback to run when the token is cancelled
+     *
+     * @param callback the callback
+     * @return true if registered, false if the token was already cancelled, in which case the
+     *         callback has been run immediately
+     */
+    public boolean register(@NonNull final Runnable callback)
+    {
+        synchronized (this)
+        {
+            if (!cancelled)
+            {
+                if (callbacks == null)
+                {
+                    callbacks = Collections.newSetFromMap(new IdentityHashMap<>());
+                }
+
+                callbacks.add(callback);
+                return true;
+            }
+        }
+
+        UURunnable.safeInvoke(callback);
+        return false;
+    }
+
+    /**
+     * Removes a registered callback
+     *
+     * @param callback the callback
+     */
+    public void unregister(@NonNull final Runnable callback)
+    {
+        synchronized (this)
+        {
+            if (callbacks != null)
+            {
+                callbacks.remove(callback);
+            }
+        }
+    }
+
+    /**
+     * Cancels the token, its registered work and all child tokens.  Safe to call more than once.
+     */
+    public void cancel()
+    {
+        ArrayList<Runnable> toRun;
+
+        synchronized (this)
+        {
+            if (cancelled)
+            {
+                return;
+            }
+
+            cancelled = true;
+            toRun = (callbacks != null ? new ArrayList<>(callbacks) : null);
+            callbacks = null;
+        }
+
+        if (parent != null)
+        {
+            parent.unregister(parentCallback);
+        }
+
+        if (toRun != null)
+        {
+            for (Runnable callback : toRun)
+            {
+                try
+                {
+                    callback.run();
+                }
+                catch (Exception ex)
+                {
+                    UULog.debug(UUCancellationToken.class, "cancel", ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Detaches the token from its parent and drops its callbacks without running them.  Call this
+     * when a child scope finishes normally so the parent does not keep it alive.
+     */
+    public void release()
+    {
+        synchronized (this)
+        {
+            callbacks = null;
+        }
+
+        if (parent != null)
+        {
+            parent.unregister(parentCallback);
+        }
+    }
+
+    /**
+     * Wraps a runnable so it is removed from its queue when this token is cancelled, and skipped
+     * if it reaches the front of the queue after cancellation.
+     *
+     * @param runnable the work
+     * @param remover removes the returned wrapper from the queue it is posted to
+     * @return the wrapper to post, or null if the token is already cancelled
+     */
+    @Nullable
+    public Runnable bind(@NonNull final Runnable runnable, @NonNull final Remover remover)
+    {
+        if (cancelled)
+        {
+            return null;
+        }
+
+        BoundRunnable bound = new BoundRunnable(runnable, remover);
+        return (register(bound.cancelCallback) ? bound : null);
+    }
+
+    /**
+     * Releases a wrapper returned by bind that is never going to run, for example because the
+     * executor rejected it or quit, so the token stops holding on to it.
+     *
+     * @param bound the wrapper returned by bind
+     */
+    public void unbind(@NonNull final Runnable bound)
+    {
+        if (bound instanceof BoundRunnable)
+        {
+            ((BoundRunnable) bound).release();
+        }
+    }
+
+    /**
+     * Releases a runnable that was dropped from a queue without running, if it is a wrapper
+     * returned by bind on any token
+     *
+     * @param runnable the dropped runnable
+     */
+    static void discard(@NonNull final Runnable runnable)
+    {
+        if (runnable instanceof BoundRunnable)
+        {
+            ((BoundRunnable) runnable).release();
+        }
+    }
+
+    private final class BoundRunnable implements Runnable
+    {
+        private final @NonNull Runnable runnable;
+        private final @NonNull Runnable cancelCallback;
+
+        private BoundRunnable(@NonNull final Runnable runnable, @NonNull final Remover remover)
+        {
+            this.runnable = runnable;
+            this.cancelCallback = new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    remover.remove(BoundRunnable.this);
+                }
+            };
+        }
+
+        private void release()
+        {
+            unregister(cancelCallback);
+        }
+
+        @Override
+        public void run()
+        {
+            release();
+
+            if (!cancelled)
+            {
+                runnable.run();
+            }
+        }
+    }
+}
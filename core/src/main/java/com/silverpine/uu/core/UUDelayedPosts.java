@@ -0,0 +1,117 @@
+package com.silverpine.uu.core;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.NonNull;
+
+import com.silverpine.uu.logging.UULog;
+
+/**
+ * Delayed post support for executors that are not backed by a looper.  Delays are timed on a
+ * single shared daemon thread, which hands each runnable to its target executor when due.
+ */
+final class UUDelayedPosts
+{
+    private static ScheduledThreadPoolExecutor scheduler = null;
+
+    private final @NonNull ConcurrentHashMap<Runnable, ArrayList<DelayedTask>> pending = new ConcurrentHashMap<>();
+
+    private final class DelayedTask implements Runnable
+    {
+        private final @NonNull Executor target;
+        private final @NonNull Runnable runnable;
+        private ScheduledFuture<?> future;
+
+        private DelayedTask(@NonNull final Executor target, @NonNull final Runnable runnable)
+        {
+            this.target = target;
+            this.runnable = runnable;
+        }
+
+        @Override
+        public void run()
+        {
+            untrack(this);
+
+            try
+            {
+                target.execute(runnable);
+            }
+            catch (Exception ex)
+            {
+                UUCancellationToken.discard(runnable);
+                UULog.error(UUDelayedPosts.class, "run", ex);
+            }
+        }
+    }
+
+    void postDelayed(@NonNull final Executor target, @NonNull final Runnable runnable, final long delayMillis)
+    {
+        final DelayedTask task = new DelayedTask(target, runnable);
+
+        pending.compute(runnable, (key, list) ->
+        {
+            if (list == null)
+            {
+                list = new ArrayList<>();
+            }
+
+            list.add(task);
+            task.future = sharedScheduler().schedule(task, Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+            return list;
+        });
+    }
+
+    void remove(@NonNull final Runnable runnable)
+    {
+        ArrayList<DelayedTask> list = pending.remove(runnable);
+        if (list != null)
+        {
+            for (DelayedTask task : list)
+            {
+                task.future.cancel(false);
+            }
+        }
+    }
+
+    void removeAll()
+    {
+        for (Runnable runnable : pending.keySet())
+        {
+            remove(runnable);
+            UUCancellationToken.discard(runnable);
+        }
+    }
+
+    private void untrack(@NonNull final DelayedTask task)
+    {
+        pending.computeIfPresent(task.runnable, (key, list) ->
+        {
+            list.remove(task);
+            return (list.isEmpty() ? null : list);
+        });
+    }
+
+    @NonNull
+    private static synchronized ScheduledThreadPoolExecutor sharedScheduler()
+    {
+        if (scheduler == null)
+        {
+            scheduler = new ScheduledThreadPoolExecutor(1, runnable ->
+            {
+                Thread t = new Thread(runnable, "UUDelayedPosts");
+                t.setDaemon(true);
+                return t;
+            });
+
+            scheduler.setRemoveOnCancelPolicy(true);
+        }
+
+        return scheduler;
+    }
+}
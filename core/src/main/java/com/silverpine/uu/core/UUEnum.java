@@ -3,8 +3,44 @@ package com.silverpine.uu.core;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class UUEnum
 {
+    /**
+     * Per enum class name tables, built once on first use
+     */
+    private static final class Lookup
+    {
+        private final @NonNull HashMap<String, Enum<?>> exact = new HashMap<>();
+        private final @NonNull HashMap<String, Enum<?>> normalized = new HashMap<>();
+
+        private Lookup(@NonNull final Class<?> type)
+        {
+            Object[] constants = type.getEnumConstants();
+            if (constants == null)
+            {
+                return;
+            }
+
+            for (Object constant : constants)
+            {
+                Enum<?> e = (Enum<?>) constant;
+                exact.put(e.name(), e);
+
+                String key = normalize(e.name());
+                if (!normalized.containsKey(key))
+                {
+                    normalized.put(key, e);
+                }
+            }
+        }
+    }
+
+    private static final ConcurrentHashMap<Class<?>, Lookup> lookups = new ConcurrentHashMap<>();
+
     @NonNull
     public static <T extends Enum<T>> T fromString(@NonNull final Class<T> type, @Nullable final String string, @NonNull T defaultValue)
     {
@@ -25,19 +61,91 @@ public class UUEnum
             return null;
         }
 
-        if (!type.isEnum())
+        return type.cast(lookup(type).exact.get(string));
+    }
+
+    /**
+     * Looks up an enum value ignoring case, underscores, hyphens and spaces, so "FOO_BAR",
+     * "fooBar", "foo-bar" and "foo bar" all match FOO_BAR.  An exact match always wins.
+     *
+     * @param type the enum class
+     * @param string the string to look up
+     * @param defaultValue returned if nothing matches
+     * @param <T> the enum type
+     * @return the matching value, or the default
+     */
+    @NonNull
+    public static <T extends Enum<T>> T fromStringLenient(@NonNull final Class<T> type, @Nullable final String string, @NonNull T defaultValue)
+    {
+        T val = fromStringLenient(type, string);
+        if (val == null)
+        {
+            val = defaultValue;
+        }
+
+        return val;
+    }
+
+    /**
+     * Looks up an enum value ignoring case, underscores, hyphens and spaces, so "FOO_BAR",
+     * "fooBar", "foo-bar" and "foo bar" all match FOO_BAR.  An exact match always wins.
+     *
+     * @param type the enum class
+     * @param string the string to look up
+     * @param <T> the enum type
+     * @return the matching value, or null
+     */
+    @Nullable
+    public static <T extends Enum<T>> T fromStringLenient(@NonNull final Class<T> type, @Nullable final String string)
+    {
+        if (string == null)
         {
             return null;
         }
 
-        try
+        Lookup lookup = lookup(type);
+
+        Enum<?> val = lookup.exact.get(string);
+        if (val == null)
         {
-            return Enum.valueOf(type, string);
+            val = lookup.normalized.get(normalize(string));
         }
-        catch (Exception ex)
+
+        return type.cast(val);
+    }
+
+    @NonNull
+    private static Lookup lookup(@NonNull final Class<?> type)
+    {
+        Lookup lookup = lookups.get(type);
+        if (lookup == null)
         {
-            return null;
-            // Eat it
+            lookup = new Lookup(type);
+
+            Lookup existing = lookups.putIfAbsent(type, lookup);
+            if (existing != null)
+            {
+                lookup = existing;
+            }
+        }
+
+        return lookup;
+    }
+
+    @NonNull
+    private static String normalize(@NonNull final String string)
+    {
+        StringBuilder sb = new StringBuilder(string.length());
+
+        for (int i = 0; i < string.length(); i++)
+        {
+            char c = string.charAt(i);
+            if (c != '_' && c != '-' && c != ' ')
+            {
+                sb.append(c);
+            }
         }
+
+        return sb.toString().toLowerCase(Locale.US);
     }
 }
@@ -1,11 +1,16 @@
 package com.silverpine.uu.core;
 
+import android.os.BadParcelableException;
 import android.os.Parcel;
 import android.os.Parcelable;
 
+import com.silverpine.uu.logging.UULog;
+
+import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Locale;
 import java.util.Objects;
 
@@ -27,6 +32,14 @@ public class UUError implements Parcelable
     JSONObject userInfo = null;
     UUError underlyingError = null;
 
+    // Hash of this error's own fields, zero until computed
+    private int hash = 0;
+
+    /**
+     * Maximum number of causes compared when checking exceptions for equality
+     */
+    private static final int MAX_CAUSE_DEPTH = 16;
+
     public UUError()
     {
     }
@@ -88,6 +101,7 @@ public class UUError implements Parcelable
         }
 
         UUJson.safePut(userInfo, key, value);
+        hash = 0;
     }
 
     @Nullable
@@ -151,17 +165,12 @@ public class UUError implements Parcelable
             return false;
         }
 
-        byte[] exceptionBytes = UUData.serializeObject(exception);
-        byte[] otherExceptionBytes = UUData.serializeObject(error.exception);
-        if (!(Arrays.equals(exceptionBytes, otherExceptionBytes)))
+        if (!exceptionEquals(exception, error.exception))
         {
             return false;
         }
 
-        String userInfoJson = UUJson.toJsonString(userInfo);
-        String otherUserInfoJson = UUJson.toJsonString(error.userInfo);
-
-        if (!(Objects.equals(userInfoJson, otherUserInfoJson)))
+        if (!UUJson.deepEquals(userInfo, error.userInfo))
         {
             return false;
         }
@@ -175,15 +184,75 @@ public class UUError implements Parcelable
     }
 
     /**
+     * The hash of this error's own fields is computed once and cached until addUserInfo is
+     * called.  Changes made directly to the JSONObject returned by getUserInfo are not tracked.
      *
      * @return hashcode of this object
      */
     @Override
     public int hashCode()
     {
-        String exceptionBytesHex = UUString.byteToHex(UUData.serializeObject(exception));
-        String userInfoJson = UUJson.toJsonString(userInfo);
-        return Objects.hash(code, domain, exceptionBytesHex, userInfoJson, underlyingError);
+        // Read once, a single int field is safe to publish racily, as in String.hashCode
+        int h = hash;
+        if (h == 0)
+        {
+            h = Objects.hash(code, domain, exceptionHashCode(exception), UUJson.deepHashCode(userInfo));
+            hash = h;
+        }
+
+        return (31 * h) + Objects.hashCode(underlyingError);
+    }
+
+    /**
+     * Compares exceptions by type, message, stack trace and cause chain
+     */
+    private static boolean exceptionEquals(@Nullable final Throwable a, @Nullable final Throwable b)
+    {
+        Throwable x = a;
+        Throwable y = b;
+
+        for (int depth = 0; depth < MAX_CAUSE_DEPTH; depth++)
+        {
+            if (x == y)
+            {
+                return true;
+            }
+
+            if (x == null || y == null)
+            {
+                return false;
+            }
+
+            if (x.getClass() != y.getClass() ||
+                !Objects.equals(x.getMessage(), y.getMessage()) ||
+                !Arrays.equals(x.getStackTrace(), y.getStackTrace()))
+            {
+                return false;
+            }
+
+            Throwable xCause = x.getCause();
+            Throwable yCause = y.getCause();
+            x = (xCause != x ? xCause : null);
+            y = (yCause != y ? yCause : null);
+        }
+
+        return true;
+    }
+
+    private static int exceptionHashCode(@Nullable final Throwable t)
+    {
+        int hash = 0;
+        Throwable current = t;
+
+        for (int depth = 0; depth < MAX_CAUSE_DEPTH && current != null; depth++)
+        {
+            hash = (31 * hash) + Objects.hash(current.getClass().getName(), current.getMessage(), Arrays.hashCode(current.getStackTrace()));
+
+            Throwable cause = current.getCause();
+            current = (cause != current ? cause : null);
+        }
+
+        return hash;
     }
 
     /**
@@ -219,14 +288,65 @@ public class UUError implements Parcelable
         return 0;
     }
 
+    /**
+     * Maximum number of stack frames written per exception
+     */
+    private static final int MAX_PARCEL_FRAMES = 32;
+
+    /**
+     * Maximum number of errors written from an underlying error chain
+     */
+    private static final int MAX_PARCEL_CHAIN = 64;
+
+    /**
+     * Maximum nesting depth of userInfo objects and arrays
+     */
+    private static final int MAX_PARCEL_JSON_DEPTH = 32;
+
+    /**
+     * Smallest wire size of a userInfo entry or array element, the int holding its type tag
+     */
+    private static final int MIN_PARCEL_VALUE_SIZE = 4;
+
+    private static final byte VALUE_NULL = 0;
+    private static final byte VALUE_STRING = 1;
+    private static final byte VALUE_BOOLEAN = 2;
+    private static final byte VALUE_INT = 3;
+    private static final byte VALUE_LONG = 4;
+    private static final byte VALUE_DOUBLE = 5;
+    private static final byte VALUE_OBJECT = 6;
+    private static final byte VALUE_ARRAY = 7;
+
+    /**
+     * Writes the error and up to 64 errors of its underlying chain field by field.
+     *
+     * The encoding is lossy for exceptions.  Only the class name, message and the top 32 stack
+     * frames are written, causes are dropped, and an exception class that cannot be recreated
+     * by its (String) constructor comes back as a plain Exception naming the original class.
+     * An error holding an exception with a longer trace, a cause or such a class is therefore not
+     * equal to itself after a round trip.  Domain, code and userInfo survive intact, except that
+     * userInfo objects and arrays nested more than 32 levels deep are written as null.
+     */
     @Override
     public void writeToParcel(Parcel dest, int flags)
     {
-        dest.writeString(domain);
-        dest.writeInt(code);
-        dest.writeSerializable(exception);
-        dest.writeString(UUJson.toJsonString(userInfo));
-        dest.writeParcelable(underlyingError, flags);
+        int count = 0;
+        for (UUError e = this; e != null && count < MAX_PARCEL_CHAIN; e = e.underlyingError)
+        {
+            count++;
+        }
+
+        dest.writeInt(count);
+
+        UUError current = this;
+        for (int i = 0; i < count; i++)
+        {
+            dest.writeString(current.domain);
+            dest.writeInt(current.code);
+            writeJsonObject(dest, current.userInfo, 0);
+            writeException(dest, current.exception);
+            current = current.underlyingError;
+        }
     }
 
     public static final Parcelable.Creator<UUError> CREATOR = new Parcelable.Creator<UUError>()
@@ -244,10 +364,269 @@ public class UUError implements Parcelable
 
     private UUError(final Parcel in)
     {
-        domain = in.readString();
-        code = in.readInt();
-        exception = (Exception) in.readSerializable();
-        userInfo = UUJson.toJsonObject(in.readString());
-        underlyingError = in.readParcelable(getClass().getClassLoader());
+        int count = Math.min(in.readInt(), MAX_PARCEL_CHAIN);
+
+        UUError current = this;
+        for (int i = 0; i < count; i++)
+        {
+            if (i > 0)
+            {
+                current.underlyingError = new UUError();
+                current = current.underlyingError;
+            }
+
+            current.domain = in.readString();
+            current.code = in.readInt();
+            current.userInfo = readJsonObject(in, 0);
+            current.exception = readException(in);
+        }
+    }
+
+    private static void writeJsonObject(@NonNull final Parcel dest, @Nullable final JSONObject json, final int depth)
+    {
+        if (json == null)
+        {
+            dest.writeInt(-1);
+            return;
+        }
+
+        dest.writeInt(json.length());
+
+        Iterator<String> keys = json.keys();
+        while (keys.hasNext())
+        {
+            String key = keys.next();
+            dest.writeString(key);
+            writeJsonValue(dest, json.opt(key), depth + 1);
+        }
+    }
+
+    @Nullable
+    private static JSONObject readJsonObject(@NonNull final Parcel in, final int depth)
+    {
+        int count = readJsonCount(in);
+        if (count < 0)
+        {
+            return null;
+        }
+
+        JSONObject json = new JSONObject();
+
+        for (int i = 0; i < count; i++)
+        {
+            String key = in.readString();
+            Object value = readJsonValue(in, depth + 1);
+            UUJson.safePut(json, key, value);
+        }
+
+        return json;
+    }
+
+    private static void writeJsonValue(@NonNull final Parcel dest, @Nullable final Object value, final int depth)
+    {
+        boolean container = (value instanceof JSONObject || value instanceof JSONArray);
+
+        if (value == null || value == JSONObject.NULL || (container && depth >= MAX_PARCEL_JSON_DEPTH))
+        {
+            dest.writeByte(VALUE_NULL);
+        }
+        else if (value instanceof Boolean)
+        {
+            dest.writeByte(VALUE_BOOLEAN);
+            dest.writeByte((byte)((Boolean) value ? 1 : 0));
+        }
+        else if (value instanceof Integer || value instanceof Short || value instanceof Byte)
+        {
+            dest.writeByte(VALUE_INT);
+            dest.writeInt(((Number) value).intValue());
+        }
+        else if (value instanceof Long)
+        {
+            dest.writeByte(VALUE_LONG);
+            dest.writeLong((Long) value);
+        }
+        else if (value instanceof Number)
+        {
+            dest.writeByte(VALUE_DOUBLE);
+            dest.writeDouble(((Number) value).doubleValue());
+        }
+        else if (value instanceof JSONObject)
+        {
+            dest.writeByte(VALUE_OBJECT);
+            writeJsonObject(dest, (JSONObject) value, depth);
+        }
+        else if (value instanceof JSONArray)
+        {
+            JSONArray array = (JSONArray) value;
+            dest.writeByte(VALUE_ARRAY);
+            dest.writeInt(array.length());
+
+            for (int i = 0; i < array.length(); i++)
+            {
+                writeJsonValue(dest, array.opt(i), depth + 1);
+            }
+        }
+        else
+        {
+            dest.writeByte(VALUE_STRING);
+            dest.writeString(value.toString());
+        }
+    }
+
+    @NonNull
+    private static Object readJsonValue(@NonNull final Parcel in, final int depth)
+    {
+        byte type = in.readByte();
+
+        switch (type)
+        {
+            case VALUE_STRING:
+            {
+                String value = in.readString();
+                return (value != null ? value : JSONObject.NULL);
+            }
+
+            case VALUE_BOOLEAN:
+                return (in.readByte() != 0);
+
+            case VALUE_INT:
+                return in.readInt();
+
+            case VALUE_LONG:
+                return in.readLong();
+
+            case VALUE_DOUBLE:
+                return in.readDouble();
+
+            case VALUE_OBJECT:
+            {
+                checkJsonDepth(depth);
+                JSONObject value = readJsonObject(in, depth);
+                return (value != null ? value : JSONObject.NULL);
+            }
+
+            case VALUE_ARRAY:
+            {
+                checkJsonDepth(depth);
+                int count = readJsonCount(in);
+                JSONArray array = new JSONArray();
+
+                for (int i = 0; i < count; i++)
+                {
+                    array.put(readJsonValue(in, depth + 1));
+                }
+
+                return array;
+            }
+
+            default:
+                return JSONObject.NULL;
+        }
+    }
+
+    /**
+     * Reads a userInfo entry or array element count, rejecting one that the rest of the parcel
+     * is too small to hold
+     */
+    private static int readJsonCount(@NonNull final Parcel in)
+    {
+        int count = in.readInt();
+        if (count > in.dataAvail() / MIN_PARCEL_VALUE_SIZE)
+        {
+            throw new BadParcelableException("UUError userInfo count " + count + " exceeds the remaining parcel data");
+        }
+
+        return count;
+    }
+
+    private static void checkJsonDepth(final int depth)
+    {
+        if (depth >= MAX_PARCEL_JSON_DEPTH)
+        {
+            throw new BadParcelableException("UUError userInfo is nested deeper than " + MAX_PARCEL_JSON_DEPTH);
+        }
+    }
+
+    private static void writeException(@NonNull final Parcel dest, @Nullable final Exception exception)
+    {
+        if (exception == null)
+        {
+            dest.writeString(null);
+            return;
+        }
+
+        dest.writeString(exception.getClass().getName());
+        dest.writeString(exception.getMessage());
+
+        StackTraceElement[] frames = exception.getStackTrace();
+        int count = Math.min(frames.length, MAX_PARCEL_FRAMES);
+        dest.writeInt(count);
+
+        for (int i = 0; i < count; i++)
+        {
+            StackTraceElement frame = frames[i];
+            dest.writeString(frame.getClassName());
+            dest.writeString(frame.getMethodName());
+            dest.writeString(frame.getFileName());
+            dest.writeInt(frame.getLineNumber());
+        }
+    }
+
+    @Nullable
+    private static Exception readException(@NonNull final Parcel in)
+    {
+        String className = in.readString();
+        if (className == null)
+        {
+            return null;
+        }
+
+        String message = in.readString();
+
+        // Never trust a size from the wire
+        int count = Math.max(0, Math.min(in.readInt(), MAX_PARCEL_FRAMES));
+        StackTraceElement[] frames = new StackTraceElement[count];
+
+        for (int i = 0; i < frames.length; i++)
+        {
+            String declaringClass = in.readString();
+            String methodName = in.readString();
+            String fileName = in.readString();
+            int lineNumber = in.readInt();
+            frames[i] = new StackTraceElement(
+                (declaringClass != null ? declaringClass : ""),
+                (methodName != null ? methodName : ""),
+                fileName,
+                lineNumber);
+        }
+
+        Exception exception = createException(className, message);
+        exception.setStackTrace(frames);
+        return exception;
+    }
+
+    /**
+     * Recreates an exception through its (String) constructor, falling back to a plain Exception
+     * that carries the original class name when the class is unknown to this process.  The class
+     * is resolved without being initialized, so a name from another process cannot run static
+     * initializers of a class that is not an Exception.
+     */
+    @NonNull
+    private static Exception createException(@NonNull final String className, @Nullable final String message)
+    {
+        try
+        {
+            Class<?> type = Class.forName(className, false, UUError.class.getClassLoader());
+            if (Exception.class.isAssignableFrom(type))
+            {
+                return type.asSubclass(Exception.class).getConstructor(String.class).newInstance(message);
+            }
+        }
+        catch (Exception ex)
+        {
+            UULog.debug(UUError.class, "createException", "Unable to recreate " + className + ": " + ex.getMessage());
+        }
+
+        return new Exception(className + (message != null ? ": " + message : ""));
     }
-}
\ No newline at end of file
+}
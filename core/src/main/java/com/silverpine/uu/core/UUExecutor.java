@@ -0,0 +1,119 @@
+package com.silverpine.uu.core;
+
+import java.util.concurrent.Executor;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A named executor that work can be posted to, optionally with a delay.
+ *
+ * Implementations are backed by a single looper thread, a fixed thread pool or a work stealing
+ * ForkJoinPool.  Create them with {@link UUExecutors}.  Threads are not started until the first
+ * runnable is posted.
+ */
+public interface UUExecutor extends Executor
+{
+    /**
+     * Gets the executor name.  Threads created by the executor are named after it.
+     *
+     * @return the name
+     */
+    @NonNull
+    String getName();
+
+    /**
+     * Posts a runnable to run as soon as possible
+     *
+     * @param runnable the runnable
+     */
+    void post(@NonNull final Runnable runnable);
+
+    /**
+     * Posts a runnable to run after a delay
+     *
+     * @param runnable the runnable
+     * @param delayMillis delay in milliseconds
+     */
+    void postDelayed(@NonNull final Runnable runnable, final long delayMillis);
+
+    /**
+     * Removes all pending posts of a runnable that have not started yet
+     *
+     * @param runnable the runnable
+     */
+    void removeRunnable(@NonNull final Runnable runnable);
+
+    /**
+     * Checks if the calling thread belongs to this executor
+     *
+     * @return true if called from one of the executor's threads
+     */
+    boolean isCurrentThread();
+
+    /**
+     * Checks if the executor has started its threads
+     *
+     * @return true once the first runnable has been posted
+     */
+    boolean isStarted();
+
+    /**
+     * Stops the executor.  Delayed posts that are not yet due are dropped.  Looper executors also
+     * discard queued work, while UUPoolExecutor and UUForkJoinExecutor follow the
+     * ExecutorService contract, still run it and reject new work.
+     */
+    void shutdown();
+
+    /**
+     * Posts a runnable that is removed from the queue if the token is cancelled before it runs
+     *
+     * @param token the cancellation token
+     * @param runnable the runnable
+     */
+    default void post(@NonNull final UUCancellationToken token, @NonNull final Runnable runnable)
+    {
+        Runnable bound = token.bind(runnable, this::removeRunnable);
+        if (bound != null)
+        {
+            try
+            {
+                post(bound);
+            }
+            catch (RuntimeException ex)
+            {
+                token.unbind(bound);
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Posts a runnable to run after a delay, removing it if the token is cancelled before it runs
+     *
+     * @param token the cancellation token
+     * @param runnable the runnable
+     * @param delayMillis delay in milliseconds
+     */
+    default void postDelayed(@NonNull final UUCancellationToken token, @NonNull final Runnable runnable, final long delayMillis)
+    {
+        Runnable bound = token.bind(runnable, this::removeRunnable);
+        if (bound != null)
+        {
+            try
+            {
+                postDelayed(bound, delayMillis);
+            }
+            catch (RuntimeException ex)
+            {
+                token.unbind(bound);
+                throw ex;
+            }
+        }
+    }
+
+    @Override
+    default void execute(@NonNull final Runnable runnable)
+    {
+        post(runnable);
+    }
+}
@@ -0,0 +1,93 @@
+package com.silverpine.uu.core;
+
+import android.os.Process;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Factory methods for {@link UUExecutor} implementations
+ */
+@SuppressWarnings("unused")
+public final class UUExecutors
+{
+    private UUExecutors()
+    {
+    }
+
+    /**
+     * Gets an executor that runs work on the main thread
+     *
+     * @return the shared main thread executor
+     */
+    @NonNull
+    public static UUExecutor mainThread()
+    {
+        return UUMainThreadExecutor.INSTANCE;
+    }
+
+    /**
+     * Creates an executor backed by a single looper thread.  Work runs in order.
+     *
+     * @param name the executor and thread name
+     * @return a new executor
+     */
+    @NonNull
+    public static UUExecutor looper(@NonNull final String name)
+    {
+        return looper(name, Process.THREAD_PRIORITY_DEFAULT);
+    }
+
+    /**
+     * Creates an executor backed by a single looper thread.  Work runs in order.
+     *
+     * @param name the executor and thread name
+     * @param priority an android.os.Process thread priority
+     * @return a new executor
+     */
+    @NonNull
+    public static UUExecutor looper(@NonNull final String name, final int priority)
+    {
+        return new UULooperExecutor(name, priority);
+    }
+
+    /**
+     * Creates an executor backed by a fixed size thread pool
+     *
+     * @param name the executor name
+     * @param threadCount number of threads
+     * @param priority an android.os.Process thread priority
+     * @return a new executor
+     */
+    @NonNull
+    public static UUPoolExecutor fixedPool(@NonNull final String name, final int threadCount, final int priority)
+    {
+        return new UUPoolExecutor(name, threadCount, priority);
+    }
+
+    /**
+     * Creates an executor backed by a work stealing ForkJoinPool sized to the number of cores
+     *
+     * @param name the executor name
+     * @param priority an android.os.Process thread priority
+     * @return a new executor
+     */
+    @NonNull
+    public static UUForkJoinExecutor workStealing(@NonNull final String name, final int priority)
+    {
+        return workStealing(name, Runtime.getRuntime().availableProcessors(), priority);
+    }
+
+    /**
+     * Creates an executor backed by a work stealing ForkJoinPool
+     *
+     * @param name the executor name
+     * @param parallelism target number of active threads
+     * @param priority an android.os.Process thread priority
+     * @return a new executor
+     */
+    @NonNull
+    public static UUForkJoinExecutor workStealing(@NonNull final String name, final int parallelism, final int priority)
+    {
+        return new UUForkJoinExecutor(name, parallelism, priority);
+    }
+}
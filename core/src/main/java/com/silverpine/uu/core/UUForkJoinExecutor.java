@@ -0,0 +1,143 @@
+package com.silverpine.uu.core;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+
+import androidx.annotation.NonNull;
+
+/**
+ * UUExecutor backed by a work stealing ForkJoinPool.  Suited to many small independent tasks
+ * that should spread across cores.  The pool is created on the first post.
+ *
+ * Runnables posted without a delay are handed straight to the pool and cannot be removed.  Once
+ * shut down, the executor rejects new work with a RejectedExecutionException.
+ */
+public class UUForkJoinExecutor implements UUExecutor
+{
+    private final @NonNull String name;
+    private final int parallelism;
+    private final @NonNull UUThreadFactory threadFactory;
+    private final @NonNull UUDelayedPosts delayedPosts = new UUDelayedPosts();
+    private volatile ForkJoinPool pool = null;
+    private volatile boolean shutdown = false;
+
+    /**
+     * Creates a work stealing executor
+     *
+     * @param name the executor name.  Threads are named name-N.
+     * @param parallelism target number of active threads
+     * @param priority an android.os.Process thread priority
+     */
+    public UUForkJoinExecutor(@NonNull final String name, final int parallelism, final int priority)
+    {
+        this.name = name;
+        this.parallelism = Math.max(1, parallelism);
+        this.threadFactory = new UUThreadFactory(name, priority);
+        this.threadFactory.setOwner(this);
+    }
+
+    @NonNull
+    @Override
+    public String getName()
+    {
+        return name;
+    }
+
+    @Override
+    public void post(@NonNull final Runnable runnable)
+    {
+        getPool().execute(runnable);
+    }
+
+    @Override
+    public void postDelayed(@NonNull final Runnable runnable, final long delayMillis)
+    {
+        checkNotShutdown();
+        delayedPosts.postDelayed(this, runnable, delayMillis);
+    }
+
+    @Override
+    public void removeRunnable(@NonNull final Runnable runnable)
+    {
+        delayedPosts.remove(runnable);
+    }
+
+    @Override
+    public boolean isCurrentThread()
+    {
+        return (UUThreadFactory.currentExecutor() == this);
+    }
+
+    @Override
+    public boolean isStarted()
+    {
+        return (pool != null);
+    }
+
+    /**
+     * Stops accepting work.  Queued runnables still run, but pending delayed posts are dropped.
+     */
+    @Override
+    public synchronized void shutdown()
+    {
+        shutdown = true;
+        delayedPosts.removeAll();
+
+        if (pool != null)
+        {
+            pool.shutdown();
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private Methods
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void checkNotShutdown()
+    {
+        if (shutdown)
+        {
+            throw new RejectedExecutionException(name + " has been shut down");
+        }
+    }
+
+    @NonNull
+    private ForkJoinPool getPool()
+    {
+        ForkJoinPool p = pool;
+        if (p == null)
+        {
+            synchronized (this)
+            {
+                checkNotShutdown();
+                p = pool;
+                if (p == null)
+                {
+                    p = new ForkJoinPool(parallelism, this::newWorkerThread, null, true);
+                    pool = p;
+                }
+            }
+        }
+
+        return p;
+    }
+
+    @NonNull
+    private ForkJoinWorkerThread newWorkerThread(@NonNull final ForkJoinPool forkJoinPool)
+    {
+        ForkJoinWorkerThread thread = new ForkJoinWorkerThread(forkJoinPool)
+        {
+            @Override
+            protected void onStart()
+            {
+                super.onStart();
+                threadFactory.prepareCurrentThread();
+            }
+        };
+
+        thread.setName(threadFactory.nextThreadName());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
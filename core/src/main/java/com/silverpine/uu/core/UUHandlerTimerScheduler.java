@@ -0,0 +1,167 @@
+package com.silverpine.uu.core;
+
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import androidx.annotation.NonNull;
+
+import com.silverpine.uu.logging.UULog;
+
+/**
+ * Default UUTimer scheduler.  Each timer posts its own delayed runnable to the timer executor.
+ *
+ * Timers with a leeway are grouped by their aligned deadline instead, and each group is posted as
+ * a single runnable, so a burst of coalesced timers costs one message and one wakeup.
+ */
+public class UUHandlerTimerScheduler implements UUTimerScheduler
+{
+    private final @NonNull UUExecutor executor;
+    private final @NonNull Object lock = new Object();
+    private final @NonNull HashMap<Long, Batch> batches = new HashMap<>();
+
+    /**
+     * Timers sharing one aligned deadline
+     */
+    private final class Batch implements Runnable
+    {
+        private final long deadline;
+        private final @NonNull ArrayList<UUTimer> timers = new ArrayList<>();
+
+        private Batch(final long deadline)
+        {
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void run()
+        {
+            fireBatch(this);
+        }
+    }
+
+    /**
+     * Creates a scheduler
+     *
+     * @param executor the executor timers fire on
+     */
+    public UUHandlerTimerScheduler(@NonNull final UUExecutor executor)
+    {
+        this.executor = executor;
+    }
+
+    @Override
+    public void schedule(@NonNull final UUTimer timer, final long deadline)
+    {
+        cancel(timer);
+
+        if (timer.getLeeway() > 0)
+        {
+            scheduleBatched(timer, deadline);
+            return;
+        }
+
+        executor.postDelayed(timer.getRunnable(), Math.max(0, deadline - SystemClock.uptimeMillis()));
+    }
+
+    @Override
+    public void cancel(@NonNull final UUTimer timer)
+    {
+        if (!timer.isPending())
+        {
+            return;
+        }
+
+        Batch emptied = null;
+        boolean batched = false;
+
+        synchronized (lock)
+        {
+            Object token = timer.schedulerToken;
+            if (token instanceof Batch)
+            {
+                Batch batch = (Batch) token;
+                batched = true;
+                timer.schedulerToken = null;
+                batch.timers.remove(timer);
+
+                if (batch.timers.isEmpty() && batches.remove(batch.deadline) != null)
+                {
+                    emptied = batch;
+                }
+            }
+        }
+
+        if (batched)
+        {
+            if (emptied != null)
+            {
+                executor.removeRunnable(emptied);
+            }
+
+            return;
+        }
+
+        // Removing from the looper queue is a linear scan, so only do it when needed
+        executor.removeRunnable(timer.getRunnable());
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private Methods
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void scheduleBatched(@NonNull final UUTimer timer, final long deadline)
+    {
+        Batch created = null;
+
+        synchronized (lock)
+        {
+            Batch batch = batches.get(deadline);
+            if (batch == null)
+            {
+                batch = new Batch(deadline);
+                batches.put(deadline, batch);
+                created = batch;
+            }
+
+            batch.timers.add(timer);
+            timer.schedulerToken = batch;
+        }
+
+        if (created != null)
+        {
+            executor.postDelayed(created, Math.max(0, deadline - SystemClock.uptimeMillis()));
+        }
+    }
+
+    private void fireBatch(@NonNull final Batch batch)
+    {
+        ArrayList<UUTimer> timers;
+
+        synchronized (lock)
+        {
+            batches.remove(batch.deadline);
+
+            timers = new ArrayList<>(batch.timers);
+            batch.timers.clear();
+
+            for (UUTimer timer : timers)
+            {
+                timer.schedulerToken = null;
+            }
+        }
+
+        for (UUTimer timer : timers)
+        {
+            try
+            {
+                timer.onSchedulerFired();
+            }
+            catch (Exception ex)
+            {
+                UULog.debug(UUHandlerTimerScheduler.class, "fireBatch", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.silverpine.uu.core;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A lock free histogram with power of two buckets.
+ *
+ * Bucket zero holds the value zero, and bucket n holds values in the range [2^(n-1), 2^n).
+ * Recording a value is a handful of atomic increments, so it is cheap enough to leave on in
+ * production code.  Units are up to the caller.
+ */
+@SuppressWarnings("unused")
+public class UUHistogram
+{
+    public static final int BUCKET_COUNT = 64;
+
+    private final @NonNull AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final @NonNull AtomicLong count = new AtomicLong();
+    private final @NonNull AtomicLong sum = new AtomicLong();
+    private final @NonNull AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a single value.  Negative values are recorded as zero.
+     *
+     * @param value the value
+     */
+    public void record(final long value)
+    {
+        long v = Math.max(0, value);
+
+        buckets.incrementAndGet(bucketIndex(v));
+        count.incrementAndGet();
+        sum.addAndGet(v);
+
+        long current = max.get();
+        while (v > current && !max.compareAndSet(current, v))
+        {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Gets the number of values recorded
+     *
+     * @return count of values
+     */
+    public long getCount()
+    {
+        return count.get();
+    }
+
+    /**
+     * Gets the sum of all values recorded
+     *
+     * @return sum of values
+     */
+    public long getSum()
+    {
+        return sum.get();
+    }
+
+    /**
+     * Gets the largest value recorded
+     *
+     * @return max value
+     */
+    public long getMax()
+    {
+        return max.get();
+    }
+
+    /**
+     * Gets the mean of all values recorded
+     *
+     * @return the mean, or zero if nothing has been recorded
+     */
+    public double getMean()
+    {
+        long c = count.get();
+        return (c > 0 ? ((double) sum.get() / (double) c) : 0);
+    }
+
+    /**
+     * Gets the number of values recorded in a bucket
+     *
+     * @param index bucket index
+     * @return count of values in the bucket
+     */
+    public long getBucketCount(final int index)
+    {
+        return buckets.get(index);
+    }
+
+    /**
+     * Estimates a percentile.  The result is the upper bound of the bucket holding the
+     * percentile, capped at the max recorded value.
+     *
+     * @param percentile a value between 0 and 1
+     * @return estimated value at the percentile
+     */
+    public long getPercentile(final double percentile)
+    {
+        long total = count.get();
+        if (total <= 0)
+        {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(total * Math.min(1.0, Math.max(0.0, percentile))));
+        long cumulative = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            cumulative += buckets.get(i);
+            if (cumulative >= target)
+            {
+                return Math.min(bucketUpperBound(i), max.get());
+            }
+        }
+
+        return max.get();
+    }
+
+    /**
+     * Creates a point in time copy of this histogram
+     *
+     * @return a new histogram
+     */
+    @NonNull
+    public UUHistogram copy()
+    {
+        UUHistogram copy = new UUHistogram();
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            copy.buckets.set(i, buckets.get(i));
+        }
+
+        copy.count.set(count.get());
+        copy.sum.set(sum.get());
+        copy.max.set(max.get());
+        return copy;
+    }
+
+    /**
+     * Clears all recorded values
+     */
+    public void reset()
+    {
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            buckets.set(i, 0);
+        }
+
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    @NonNull
+    @Override
+    public String toString()
+    {
+        return String.format(Locale.US, "count: %d, mean: %.1f, p50: %d, p90: %d, p99: %d, max: %d",
+            getCount(), getMean(), getPercentile(0.5), getPercentile(0.9), getPercentile(0.99), getMax());
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private Methods
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static int bucketIndex(final long value)
+    {
+        return Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(value));
+    }
+
+    private static long bucketUpperBound(final int index)
+    {
+        if (index == 0)
+        {
+            return 0;
+        }
+
+        if (index >= BUCKET_COUNT - 1)
+        {
+            return Long.MAX_VALUE;
+        }
+
+        return (1L << index) - 1;
+    }
+}
@@ -455,13 +455,10 @@ public final class UUJson
 
         try
         {
-            Object obj = safeGet(json, key);
-            if (obj != null && type != null)
+            T casted = UUObject.safeCast(type, safeGet(json, key));
+            if (casted != null)
             {
-                if (obj.getClass().isAssignableFrom(type))
-                {
-                    val = UUObject.safeCast(type, obj);
-                }
+                val = casted;
             }
         }
         catch (Exception ex)
@@ -1126,6 +1123,216 @@ public final class UUJson
         return json;
     }
 
+    /**
+     * Structurally compares two JSON objects without serializing them.  Key order does not
+     * matter, nested objects and arrays are compared recursively, and numbers compare by value
+     * so 1, 1L and 1.0 are equal.
+     *
+     * @param a first object
+     * @param b second object
+     * @return true if both are null or both hold equal values for the same keys
+     */
+    public static boolean deepEquals(@Nullable final JSONObject a, @Nullable final JSONObject b)
+    {
+        if (a == b)
+        {
+            return true;
+        }
+
+        if (a == null || b == null || a.length() != b.length())
+        {
+            return false;
+        }
+
+        Iterator<String> keys = a.keys();
+        while (keys.hasNext())
+        {
+            String key = keys.next();
+            if (!b.has(key) || !deepValueEquals(a.opt(key), b.opt(key)))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Structurally compares two JSON arrays without serializing them
+     *
+     * @param a first array
+     * @param b second array
+     * @return true if both are null or both hold equal values in the same order
+     */
+    public static boolean deepEquals(@Nullable final JSONArray a, @Nullable final JSONArray b)
+    {
+        if (a == b)
+        {
+            return true;
+        }
+
+        if (a == null || b == null || a.length() != b.length())
+        {
+            return false;
+        }
+
+        for (int i = 0; i < a.length(); i++)
+        {
+            if (!deepValueEquals(a.opt(i), b.opt(i)))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Computes a hash code consistent with {@link #deepEquals(JSONObject, JSONObject)}
+     *
+     * @param json the object
+     * @return a hash code
+     */
+    public static int deepHashCode(@Nullable final JSONObject json)
+    {
+        if (json == null)
+        {
+            return 0;
+        }
+
+        // Sum of entry hashes, so key order does not matter
+        int hash = 0;
+
+        Iterator<String> keys = json.keys();
+        while (keys.hasNext())
+        {
+            String key = keys.next();
+            hash += (key.hashCode() ^ deepValueHashCode(json.opt(key)));
+        }
+
+        return hash;
+    }
+
+    /**
+     * Computes a hash code consistent with {@link #deepEquals(JSONArray, JSONArray)}
+     *
+     * @param json the array
+     * @return a hash code
+     */
+    public static int deepHashCode(@Nullable final JSONArray json)
+    {
+        if (json == null)
+        {
+            return 0;
+        }
+
+        int hash = 1;
+
+        for (int i = 0; i < json.length(); i++)
+        {
+            hash = (31 * hash) + deepValueHashCode(json.opt(i));
+        }
+
+        return hash;
+    }
+
+    private static boolean deepValueEquals(@Nullable final Object a, @Nullable final Object b)
+    {
+        if (a == b)
+        {
+            return true;
+        }
+
+        if (a == null || b == null)
+        {
+            return false;
+        }
+
+        if (a instanceof JSONObject && b instanceof JSONObject)
+        {
+            return deepEquals((JSONObject) a, (JSONObject) b);
+        }
+
+        if (a instanceof JSONArray && b instanceof JSONArray)
+        {
+            return deepEquals((JSONArray) a, (JSONArray) b);
+        }
+
+        if (a instanceof Number && b instanceof Number)
+        {
+            Number x = (Number) a;
+            Number y = (Number) b;
+            boolean xIntegral = isIntegral(x);
+            boolean yIntegral = isIntegral(y);
+
+            if (xIntegral && yIntegral)
+            {
+                return x.longValue() == y.longValue();
+            }
+
+            // Compare exactly when one side is integral, widening a large long to a double
+            // would round it
+            if (xIntegral || yIntegral)
+            {
+                long integral = (xIntegral ? x.longValue() : y.longValue());
+                double d = (xIntegral ? y.doubleValue() : x.doubleValue());
+                return (isExactLong(d) && (long) d == integral);
+            }
+
+            return Double.compare(x.doubleValue(), y.doubleValue()) == 0;
+        }
+
+        return a.equals(b);
+    }
+
+    private static int deepValueHashCode(@Nullable final Object value)
+    {
+        if (value == null)
+        {
+            return 0;
+        }
+
+        if (value instanceof JSONObject)
+        {
+            return deepHashCode((JSONObject) value);
+        }
+
+        if (value instanceof JSONArray)
+        {
+            return deepHashCode((JSONArray) value);
+        }
+
+        if (value instanceof Number)
+        {
+            Number number = (Number) value;
+            if (isIntegral(number))
+            {
+                return Long.valueOf(number.longValue()).hashCode();
+            }
+
+            // Whole doubles hash like the equal integer so 1 and 1.0 collide as they should
+            double d = number.doubleValue();
+            if (isExactLong(d))
+            {
+                return Long.valueOf((long) d).hashCode();
+            }
+
+            return Double.valueOf(d).hashCode();
+        }
+
+        return value.hashCode();
+    }
+
+    private static boolean isExactLong(final double d)
+    {
+        return (d >= -0x1p63 && d < 0x1p63 && d == Math.rint(d));
+    }
+
+    private static boolean isIntegral(@NonNull final Number number)
+    {
+        return (number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte);
+    }
+
     public static void closeJsonReader(final JsonReader reader)
     {
         try
@@ -35,7 +35,7 @@ public interface UUListDelegate<T>
 
     static <T extends Object> void safeInvokeOnMainThread(@Nullable final UUListDelegate<T> delegate, @NonNull final ArrayList<T> list)
     {
-        UUThread.runOnMainThread(() ->
+        UUThread.runOnMainThreadBatched(() ->
         {
             safeInvoke(delegate, list);
         });
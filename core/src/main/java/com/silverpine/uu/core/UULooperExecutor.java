@@ -0,0 +1,171 @@
+package com.silverpine.uu.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * UUExecutor backed by a single {@link UUWorkerThread}.  Work runs in order on one thread.  The
+ * thread is started on the first post and quits after it has been idle for the idle timeout, and
+ * the next post starts a new worker thread in its place.
+ */
+public class UULooperExecutor implements UUExecutor
+{
+    public static final long DEFAULT_IDLE_TIMEOUT = 60000;
+
+    private final @NonNull String name;
+    private final int priority;
+    private final @NonNull Object lock = new Object();
+    private @NonNull UUWorkerThread workerThread;
+    private boolean shutdown = false;
+
+    /**
+     * Creates a looper executor
+     *
+     * @param name the executor and thread name
+     * @param priority an android.os.Process thread priority
+     */
+    public UULooperExecutor(@NonNull final String name, final int priority)
+    {
+        this.name = name;
+        this.priority = priority;
+        this.workerThread = createWorkerThread();
+    }
+
+    @NonNull
+    @Override
+    public String getName()
+    {
+        return name;
+    }
+
+    @Override
+    public void post(@NonNull final Runnable runnable)
+    {
+        postDelayed(runnable, 0);
+    }
+
+    @Override
+    public void postDelayed(@NonNull final Runnable runnable, final long delayMillis)
+    {
+        enqueue(runnable, delayMillis);
+    }
+
+    @Override
+    public void post(@NonNull final UUCancellationToken token, @NonNull final Runnable runnable)
+    {
+        postDelayed(token, runnable, 0);
+    }
+
+    @Override
+    public void postDelayed(@NonNull final UUCancellationToken token, @NonNull final Runnable runnable, final long delayMillis)
+    {
+        Runnable bound = token.bind(runnable, this::removeRunnable);
+        if (bound != null && !enqueue(bound, delayMillis))
+        {
+            token.unbind(bound);
+        }
+    }
+
+    @Override
+    public void removeRunnable(@NonNull final Runnable runnable)
+    {
+        getWorkerThread().removeRunnable(runnable);
+    }
+
+    @Override
+    public boolean isCurrentThread()
+    {
+        return getWorkerThread().isCurrentThread();
+    }
+
+    @Override
+    public boolean isStarted()
+    {
+        return getWorkerThread().isStarted();
+    }
+
+    /**
+     * Quits the worker thread immediately.  Queued runnables are dropped, as are any posted
+     * afterwards.
+     */
+    @Override
+    public void shutdown()
+    {
+        UUWorkerThread thread;
+
+        synchronized (lock)
+        {
+            shutdown = true;
+            thread = workerThread;
+        }
+
+        thread.quit();
+    }
+
+    /**
+     * Gets the current worker thread.  A new worker thread replaces this one once it has quit on
+     * its idle timeout, so do not hold on to the result.
+     *
+     * @return the worker thread
+     */
+    @NonNull
+    public UUWorkerThread getWorkerThread()
+    {
+        synchronized (lock)
+        {
+            return workerThread;
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private Methods
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    @NonNull
+    private UUWorkerThread createWorkerThread()
+    {
+        UUWorkerThread thread = new UUWorkerThread(name, priority);
+        thread.setIdleTimeout(DEFAULT_IDLE_TIMEOUT);
+        return thread;
+    }
+
+    private boolean enqueue(@NonNull final Runnable runnable, final long delayMillis)
+    {
+        // A worker can quit on its idle timeout between being fetched and being posted to, so
+        // try once more on its replacement
+        for (int attempt = 0; attempt < 2; attempt++)
+        {
+            UUWorkerThread thread = liveWorkerThread();
+            if (thread == null)
+            {
+                return false;
+            }
+
+            if (thread.enqueue(runnable, delayMillis))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Nullable
+    private UUWorkerThread liveWorkerThread()
+    {
+        synchronized (lock)
+        {
+            if (shutdown)
+            {
+                return null;
+            }
+
+            if (workerThread.isQuit())
+            {
+                workerThread = createWorkerThread();
+            }
+
+            return workerThread;
+        }
+    }
+}
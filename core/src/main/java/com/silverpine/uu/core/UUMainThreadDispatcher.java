@@ -0,0 +1,126 @@
+package com.silverpine.uu.core;
+
+import android.os.Handler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.silverpine.uu.logging.UULog;
+
+/**
+ * Coalesces runnables bound for the main thread into a single Handler message.
+ *
+ * The first runnable queued while the dispatcher is idle posts one drain message.  Everything
+ * queued before that message runs is executed by it, in order.  Runnables queued with a key
+ * replace any pending runnable with the same key, so a burst of updates to the same thing only
+ * runs the latest one.
+ */
+final class UUMainThreadDispatcher
+{
+    private final @NonNull Handler handler;
+    private final @NonNull Object lock = new Object();
+
+    private @NonNull ArrayList<Runnable> pending = new ArrayList<>();
+    private @NonNull ArrayList<Runnable> draining = new ArrayList<>();
+    private final @NonNull HashMap<Object, Integer> pendingKeys = new HashMap<>();
+    private boolean drainPosted = false;
+
+    private final @NonNull Runnable drainRunnable = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            drain();
+        }
+    };
+
+    UUMainThreadDispatcher(@NonNull final Handler handler)
+    {
+        this.handler = handler;
+    }
+
+    /**
+     * Queues a runnable for the next batch
+     *
+     * @param key optional de-duplication key
+     * @param runnable the runnable
+     */
+    void dispatch(@Nullable final Object key, @NonNull final Runnable runnable)
+    {
+        boolean post = false;
+
+        synchronized (lock)
+        {
+            Integer index = (key != null ? pendingKeys.get(key) : null);
+            if (index != null)
+            {
+                pending.set(index, runnable);
+            }
+            else
+            {
+                if (key != null)
+                {
+                    pendingKeys.put(key, pending.size());
+                }
+
+                pending.add(runnable);
+            }
+
+            if (!drainPosted)
+            {
+                drainPosted = true;
+                post = true;
+            }
+        }
+
+        if (post)
+        {
+            handler.post(drainRunnable);
+        }
+    }
+
+    /**
+     * Checks if any runnables are waiting for the next batch
+     *
+     * @return true if work is pending
+     */
+    boolean hasPending()
+    {
+        synchronized (lock)
+        {
+            return !pending.isEmpty();
+        }
+    }
+
+    private void drain()
+    {
+        ArrayList<Runnable> batch;
+
+        synchronized (lock)
+        {
+            batch = pending;
+            pending = draining;
+            draining = batch;
+            pendingKeys.clear();
+            drainPosted = false;
+        }
+
+        int count = batch.size();
+        for (int i = 0; i < count; i++)
+        {
+            try
+            {
+                batch.get(i).run();
+            }
+            catch (Exception ex)
+            {
+                UULog.debug(UUMainThreadDispatcher.class, "drain", ex);
+            }
+        }
+
+        batch.clear();
+    }
+}
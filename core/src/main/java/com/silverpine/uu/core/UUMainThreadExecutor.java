@@ -0,0 +1,60 @@
+package com.silverpine.uu.core;
+
+import androidx.annotation.NonNull;
+
+/**
+ * UUExecutor view of the main thread, backed by the shared main Handler
+ */
+final class UUMainThreadExecutor implements UUExecutor
+{
+    static final @NonNull UUMainThreadExecutor INSTANCE = new UUMainThreadExecutor();
+
+    private UUMainThreadExecutor()
+    {
+    }
+
+    @NonNull
+    @Override
+    public String getName()
+    {
+        return "main";
+    }
+
+    @Override
+    public void post(@NonNull final Runnable runnable)
+    {
+        UUThread.getMainHandler().post(runnable);
+    }
+
+    @Override
+    public void postDelayed(@NonNull final Runnable runnable, final long delayMillis)
+    {
+        UUThread.getMainHandler().postDelayed(runnable, delayMillis);
+    }
+
+    @Override
+    public void removeRunnable(@NonNull final Runnable runnable)
+    {
+        UUThread.getMainHandler().removeCallbacks(runnable);
+    }
+
+    @Override
+    public boolean isCurrentThread()
+    {
+        return UUThread.isMainThread();
+    }
+
+    @Override
+    public boolean isStarted()
+    {
+        return true;
+    }
+
+    /**
+     * The main thread cannot be shut down, so this does nothing
+     */
+    @Override
+    public void shutdown()
+    {
+    }
+}
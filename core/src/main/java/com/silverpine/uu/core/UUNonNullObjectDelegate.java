@@ -33,7 +33,7 @@ public interface UUNonNullObjectDelegate<T>
 
     static <T extends Object> void safeInvokeOnMainThread(@Nullable final UUNonNullObjectDelegate<T> delegate, @NonNull final T object)
     {
-        UUThread.runOnMainThread(() ->
+        UUThread.runOnMainThreadBatched(() ->
         {
             safeInvoke(delegate, object);
         });
@@ -3,7 +3,12 @@ package com.silverpine.uu.core;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.lang.ref.SoftReference;
 import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.silverpine.uu.logging.UULog;
 
@@ -12,6 +17,31 @@ import com.silverpine.uu.logging.UULog;
  */
 public class UUObject
 {
+    /**
+     * Resolved no-arg methods per class.  Classes are weakly held and methods softly held, so
+     * caching a method never keeps its class loaded.
+     */
+    private static final Map<Class<?>, ConcurrentHashMap<String, SoftReference<Method>>> methodCache = new WeakHashMap<>();
+
+    /**
+     * Cached result for a method name that does not resolve on a class
+     */
+    private static final SoftReference<Method> NO_METHOD = new SoftReference<>(null);
+
+    private static final HashMap<Class<?>, Class<?>> BOXED_TYPES = new HashMap<>();
+
+    static
+    {
+        BOXED_TYPES.put(boolean.class, Boolean.class);
+        BOXED_TYPES.put(byte.class, Byte.class);
+        BOXED_TYPES.put(char.class, Character.class);
+        BOXED_TYPES.put(short.class, Short.class);
+        BOXED_TYPES.put(int.class, Integer.class);
+        BOXED_TYPES.put(long.class, Long.class);
+        BOXED_TYPES.put(float.class, Float.class);
+        BOXED_TYPES.put(double.class, Double.class);
+    }
+
     /**
      * Safely invokes a void/void method on an object.
      *
@@ -22,7 +52,13 @@ public class UUObject
     {
         try
         {
-            Method m = target.getClass().getMethod(method);
+            Method m = findMethod(target.getClass(), method);
+            if (m == null)
+            {
+                UULog.error(UUObject.class, "invokeMethod", new NoSuchMethodException(target.getClass().getName() + "." + method + "()"));
+                return;
+            }
+
             m.invoke(target);
         }
         catch (Exception ex)
@@ -31,6 +67,52 @@ public class UUObject
         }
     }
 
+    /**
+     * Looks up a public no-arg method, caching the result per class and name.  Misses are cached
+     * too, so repeated lookups of a missing method are just as cheap.
+     *
+     * @param type the class to search
+     * @param method the method name
+     * @return the method, or null if the class has no such public method
+     */
+    @Nullable
+    public static Method findMethod(@NonNull final Class<?> type, @NonNull final String method)
+    {
+        ConcurrentHashMap<String, SoftReference<Method>> methods;
+
+        synchronized (methodCache)
+        {
+            methods = methodCache.get(type);
+            if (methods == null)
+            {
+                methods = new ConcurrentHashMap<>();
+                methodCache.put(type, methods);
+            }
+        }
+
+        SoftReference<Method> cached = methods.get(method);
+        if (cached == NO_METHOD)
+        {
+            return null;
+        }
+
+        Method m = (cached != null ? cached.get() : null);
+        if (m == null)
+        {
+            try
+            {
+                m = type.getMethod(method);
+                methods.put(method, new SoftReference<>(m));
+            }
+            catch (NoSuchMethodException ex)
+            {
+                methods.put(method, NO_METHOD);
+            }
+        }
+
+        return m;
+    }
+
     /**
      * Safely invokes a void/void method on an object from the main thread.
      *
@@ -39,33 +121,61 @@ public class UUObject
      */
     public static void invokeMethodOnMainThread(@NonNull final Object target, @NonNull final String method)
     {
+        final Method m = findMethod(target.getClass(), method);
+        if (m == null)
+        {
+            UULog.error(UUObject.class, "invokeMethodOnMainThread", new NoSuchMethodException(target.getClass().getName() + "." + method + "()"));
+            return;
+        }
+
         UUThread.runOnMainThread(new Runnable()
         {
             @Override
             public void run()
             {
-                invokeMethod(target, method);
+                try
+                {
+                    m.invoke(target);
+                }
+                catch (Exception ex)
+                {
+                    UULog.error(UUObject.class, "invokeMethodOnMainThread", ex);
+                }
             }
         });
     }
 
+    /**
+     * Casts an object to a type if it is an instance of that type, with the same semantics as
+     * instanceof.  Subclasses and interface implementations cast successfully.  Primitive types
+     * match their boxed values.
+     *
+     * @param type the type to cast to
+     * @param obj the object to cast
+     * @param <T> the type
+     * @return the object as a T, or null if obj is null or not an instance of type
+     */
     @Nullable
-    public static <T> T safeCast(@Nullable Class<T> type, @Nullable Object obj)
+    @SuppressWarnings("unchecked")
+    public static <T> T safeCast(@Nullable final Class<T> type, @Nullable final Object obj)
     {
-        T castedObj = null;
+        if (obj == null || type == null)
+        {
+            return null;
+        }
 
-        try
+        // Exact match is the common case for JSON values and skips the hierarchy walk
+        Class<?> objType = obj.getClass();
+        if (objType == type || type.isInstance(obj))
         {
-            if (obj != null && type != null && obj.getClass().isAssignableFrom(type))
-            {
-                castedObj = type.cast(obj);
-            }
+            return (T) obj;
         }
-        catch (Exception ex)
+
+        if (type.isPrimitive() && objType == BOXED_TYPES.get(type))
         {
-            castedObj = null;
+            return (T) obj;
         }
 
-        return castedObj;
+        return null;
     }
 }
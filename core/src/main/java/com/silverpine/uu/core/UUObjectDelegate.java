@@ -32,7 +32,7 @@ public interface UUObjectDelegate<T>
 
     static <T extends Object> void safeInvokeOnMainThread(@Nullable final UUObjectDelegate<T> delegate, @Nullable final T object)
     {
-        UUThread.runOnMainThread(() ->
+        UUThread.runOnMainThreadBatched(() ->
         {
             safeInvoke(delegate, object);
         });
@@ -0,0 +1,407 @@
+package com.silverpine.uu.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * UUExecutor backed by a bounded, instrumented thread pool.  Threads are created as work
+ * arrives.  Once the core threads are busy, work queues up to the queue capacity, then extra
+ * threads are added up to the max pool size, and after that new work is handled by the
+ * rejection policy.  A pool with a queue capacity of zero queues nothing, and grows straight to
+ * the max pool size instead.
+ */
+@SuppressWarnings("unused")
+public class UUPoolExecutor extends ThreadPoolExecutor implements UUExecutor
+{
+    /**
+     * What to do with work that arrives when the pool and its queue are full
+     */
+    public enum RejectionPolicy
+    {
+        /**
+         * Throw a RejectedExecutionException to the caller
+         */
+        ABORT,
+
+        /**
+         * Run the work on the calling thread.  Work that arrives after shutdown is rejected with
+         * a RejectedExecutionException rather than silently dropped.
+         */
+        CALLER_RUNS,
+
+        /**
+         * Silently drop the new work
+         */
+        DISCARD,
+
+        /**
+         * Drop the oldest queued work and queue the new work
+         */
+        DISCARD_OLDEST
+    }
+
+    private final @NonNull String name;
+    private final @NonNull UUDelayedPosts delayedPosts = new UUDelayedPosts();
+    private volatile boolean started = false;
+
+    private final @NonNull AtomicLong submittedCount = new AtomicLong();
+    private final @NonNull AtomicLong rejectedCount = new AtomicLong();
+    private final @NonNull AtomicLong failedCount = new AtomicLong();
+    private final @NonNull UUHistogram executionTime = new UUHistogram();
+    private final @NonNull ThreadLocal<long[]> executionStart = new ThreadLocal<long[]>()
+    {
+        @Override
+        protected long[] initialValue()
+        {
+            return new long[1];
+        }
+    };
+
+    /**
+     * Creates a fixed size pool with an unbounded queue
+     *
+     * @param name the executor name.  Threads are named name-N.
+     * @param threadCount number of threads
+     * @param priority an android.os.Process thread priority
+     */
+    public UUPoolExecutor(@NonNull final String name, final int threadCount, final int priority)
+    {
+        this(name, threadCount, threadCount, 0L, Integer.MAX_VALUE, priority, RejectionPolicy.ABORT);
+    }
+
+    /**
+     * Creates a bounded pool
+     *
+     * @param name the executor name.  Threads are named name-N.
+     * @param coreSize number of threads kept while there is work
+     * @param maxSize maximum number of threads
+     * @param keepAliveMillis how long idle threads are kept.  When greater than zero, core threads
+     *                        also time out.
+     * @param queueCapacity maximum number of queued runnables.  Zero hands work directly to a
+     *                      thread, creating one up to maxSize when none is idle.
+     * @param priority an android.os.Process thread priority
+     * @param rejectionPolicy what to do when the pool and queue are full
+     */
+    public UUPoolExecutor(
+        @NonNull final String name,
+        final int coreSize,
+        final int maxSize,
+        final long keepAliveMillis,
+        final int queueCapacity,
+        final int priority,
+        @NonNull final RejectionPolicy rejectionPolicy)
+    {
+        this(name, coreSize, maxSize, keepAliveMillis, queueCapacity, new UUThreadFactory(name, priority), rejectionPolicy);
+    }
+
+    private UUPoolExecutor(
+        @NonNull final String name,
+        final int coreSize,
+        final int maxSize,
+        final long keepAliveMillis,
+        final int queueCapacity,
+        @NonNull final UUThreadFactory threadFactory,
+        @NonNull final RejectionPolicy rejectionPolicy)
+    {
+        super(coreSize, Math.max(coreSize, maxSize), keepAliveMillis, TimeUnit.MILLISECONDS,
+            createQueue(queueCapacity), threadFactory);
+
+        this.name = name;
+        threadFactory.setOwner(this);
+        setRejectedExecutionHandler(new CountingRejectionHandler(toHandler(rejectionPolicy)));
+
+        if (keepAliveMillis > 0)
+        {
+            allowCoreThreadTimeOut(true);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // UUExecutor
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    @NonNull
+    @Override
+    public String getName()
+    {
+        return name;
+    }
+
+    @Override
+    public void post(@NonNull final Runnable runnable)
+    {
+        execute(runnable);
+    }
+
+    @Override
+    public void postDelayed(@NonNull final Runnable runnable, final long delayMillis)
+    {
+        started = true;
+        delayedPosts.postDelayed(this, runnable, delayMillis);
+    }
+
+    @Override
+    public void removeRunnable(@NonNull final Runnable runnable)
+    {
+        delayedPosts.remove(runnable);
+        remove(runnable);
+    }
+
+    @Override
+    public boolean isCurrentThread()
+    {
+        return (UUThreadFactory.currentExecutor() == this);
+    }
+
+    @Override
+    public boolean isStarted()
+    {
+        return started;
+    }
+
+    /**
+     * Stops accepting work.  Queued runnables still run and futures returned by submit still
+     * complete, as with any ExecutorService, but pending delayed posts are dropped.
+     */
+    @Override
+    public void shutdown()
+    {
+        delayedPosts.removeAll();
+        super.shutdown();
+    }
+
+    /**
+     * Stops accepting work and discards everything still queued.  Futures returned by submit for
+     * discarded work are cancelled, so callers waiting on them are released.  Runnables already
+     * running are allowed to finish.
+     *
+     * @return the runnables that were discarded
+     */
+    @NonNull
+    public List<Runnable> shutdownAndDiscard()
+    {
+        delayedPosts.removeAll();
+        super.shutdown();
+
+        ArrayList<Runnable> discarded = new ArrayList<>();
+        getQueue().drainTo(discarded);
+
+        for (Runnable r : discarded)
+        {
+            if (r instanceof Future<?>)
+            {
+                ((Future<?>) r).cancel(false);
+            }
+
+            UUCancellationToken.discard(r);
+        }
+
+        return discarded;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Instrumentation
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Gets the number of runnables handed to the pool, including rejected ones
+     *
+     * @return submitted count
+     */
+    public long getSubmittedCount()
+    {
+        return submittedCount.get();
+    }
+
+    /**
+     * Gets the number of runnables handled by the rejection policy
+     *
+     * @return rejected count
+     */
+    public long getRejectedCount()
+    {
+        return rejectedCount.get();
+    }
+
+    /**
+     * Gets the number of runnables that threw
+     *
+     * @return failed count
+     */
+    public long getFailedCount()
+    {
+        return failedCount.get();
+    }
+
+    /**
+     * Counts a runnable that caught and handled its own exception, so the failure still shows up
+     * in getFailedCount
+     */
+    void recordFailure()
+    {
+        failedCount.incrementAndGet();
+    }
+
+    /**
+     * Gets the histogram of runnable execution times
+     *
+     * @return execution time histogram in microseconds
+     */
+    @NonNull
+    public UUHistogram getExecutionTime()
+    {
+        return executionTime;
+    }
+
+    @Override
+    public void execute(@NonNull final Runnable command)
+    {
+        started = true;
+        submittedCount.incrementAndGet();
+        super.execute(command);
+    }
+
+    @Override
+    protected void beforeExecute(final Thread t, final Runnable r)
+    {
+        super.beforeExecute(t, r);
+        executionStart.get()[0] = System.nanoTime();
+    }
+
+    @Override
+    protected void afterExecute(final Runnable r, @Nullable final Throwable t)
+    {
+        super.afterExecute(r, t);
+        executionTime.record((System.nanoTime() - executionStart.get()[0]) / 1000L);
+
+        Throwable failure = t;
+
+        // Work passed to submit() is wrapped in a FutureTask that captures the exception
+        if (failure == null && r instanceof Future<?> && ((Future<?>) r).isDone())
+        {
+            try
+            {
+                ((Future<?>) r).get();
+            }
+            catch (CancellationException ex)
+            {
+                // Cancelled work did not fail
+            }
+            catch (ExecutionException ex)
+            {
+                failure = ex.getCause();
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (failure != null)
+        {
+            failedCount.incrementAndGet();
+        }
+    }
+
+    @NonNull
+    @Override
+    public String toString()
+    {
+        return String.format(Locale.US,
+            "name: %s, poolSize: %d, active: %d, largest: %d, queued: %d, submitted: %d, completed: %d, rejected: %d, failed: %d, executionMicros: [%s]",
+            name,
+            getPoolSize(),
+            getActiveCount(),
+            getLargestPoolSize(),
+            getQueue().size(),
+            getSubmittedCount(),
+            getCompletedTaskCount(),
+            getRejectedCount(),
+            getFailedCount(),
+            executionTime);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private Methods
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    @NonNull
+    private static BlockingQueue<Runnable> createQueue(final int capacity)
+    {
+        if (capacity <= 0)
+        {
+            return new SynchronousQueue<>();
+        }
+
+        return new LinkedBlockingQueue<>(capacity);
+    }
+
+    @NonNull
+    private static RejectedExecutionHandler toHandler(@NonNull final RejectionPolicy policy)
+    {
+        switch (policy)
+        {
+            case CALLER_RUNS:
+                return new CallerRunsOrAbortPolicy();
+
+            case DISCARD:
+                return new ThreadPoolExecutor.DiscardPolicy();
+
+            case DISCARD_OLDEST:
+                return new ThreadPoolExecutor.DiscardOldestPolicy();
+
+            default:
+                return new ThreadPoolExecutor.AbortPolicy();
+        }
+    }
+
+    /**
+     * Runs rejected work on the calling thread, or throws if the pool has been shut down.  The
+     * stock CallerRunsPolicy drops work after shutdown without telling the caller.
+     */
+    private static final class CallerRunsOrAbortPolicy implements RejectedExecutionHandler
+    {
+        @Override
+        public void rejectedExecution(final Runnable r, final ThreadPoolExecutor executor) throws RejectedExecutionException
+        {
+            if (executor.isShutdown())
+            {
+                throw new RejectedExecutionException("Executor has been shut down");
+            }
+
+            r.run();
+        }
+    }
+
+    private final class CountingRejectionHandler implements RejectedExecutionHandler
+    {
+        private final @NonNull RejectedExecutionHandler handler;
+
+        private CountingRejectionHandler(@NonNull final RejectedExecutionHandler handler)
+        {
+            this.handler = handler;
+        }
+
+        @Override
+        public void rejectedExecution(final Runnable r, final ThreadPoolExecutor executor) throws RejectedExecutionException
+        {
+            rejectedCount.incrementAndGet();
+            handler.rejectedExecution(r, executor);
+        }
+    }
+}
@@ -0,0 +1,642 @@
+package com.silverpine.uu.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.silverpine.uu.logging.UULog;
+
+/**
+ * Lightweight single assignment result of an async operation.
+ *
+ * A promise completes exactly once, either with a value, an error or by being cancelled.
+ * Continuations registered with then, whenComplete and friends run once it completes.  Each
+ * continuation can name a UUExecutor to run on.  If the promise completes on that executor's
+ * thread, or the continuation is added after completion from that thread, it runs inline with no
+ * thread hop.  A null executor always runs inline on whichever thread completed the promise.
+ *
+ * Errors and cancellation propagate down a chain, so a pipeline only needs one error handler at
+ * the end.
+ *
+ * @param <T> the value type
+ */
+@SuppressWarnings("unused")
+public class UUPromise<T>
+{
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Public Interfaces
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Maps a value to a new value
+     */
+    public interface Transform<T, R>
+    {
+        @Nullable
+        R apply(@Nullable final T value) throws Exception;
+    }
+
+    /**
+     * Maps a value to a new async operation
+     */
+    public interface AsyncTransform<T, R>
+    {
+        @NonNull
+        UUPromise<R> apply(@Nullable final T value) throws Exception;
+    }
+
+    /**
+     * Merges two values into one
+     */
+    public interface Combiner<A, B, R>
+    {
+        @Nullable
+        R combine(@Nullable final A first, @Nullable final B second) throws Exception;
+    }
+
+    /**
+     * Receives the outcome of a promise
+     */
+    public interface Callback<T>
+    {
+        /**
+         * Invoked once the promise completes
+         *
+         * @param value the value, or null if the promise failed
+         * @param error the error, or null if the promise succeeded.  Cancellation is reported as a
+         *              CancellationException.
+         */
+        void onCompleted(@Nullable final T value, @Nullable final Exception error);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Data Members
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static final int PENDING = 0;
+    private static final int RESOLVED = 1;
+    private static final int REJECTED = 2;
+    private static final int CANCELLED = 3;
+
+    private int state = PENDING;
+    private @Nullable T value = null;
+    private @Nullable Exception error = null;
+    private @Nullable ArrayList<Continuation<T>> continuations = null;
+
+    private static final class Continuation<T> implements Runnable
+    {
+        private final @NonNull UUPromise<T> promise;
+        private final @Nullable UUExecutor executor;
+        private final @NonNull Callback<T> callback;
+
+        private Continuation(@NonNull final UUPromise<T> promise, @Nullable final UUExecutor executor, @NonNull final Callback<T> callback)
+        {
+            this.promise = promise;
+            this.executor = executor;
+            this.callback = callback;
+        }
+
+        private void dispatch()
+        {
+            if (executor == null || executor.isCurrentThread())
+            {
+                run();
+            }
+            else
+            {
+                executor.post(this);
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                callback.onCompleted(promise.getValue(), promise.getError());
+            }
+            catch (Exception ex)
+            {
+                UULog.error(UUPromise.class, "Continuation.run", ex);
+            }
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Construction
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Creates a pending promise
+     */
+    public UUPromise()
+    {
+    }
+
+    /**
+     * Creates a promise that has already succeeded
+     *
+     * @param value the value
+     * @param <T> the value type
+     * @return a resolved promise
+     */
+    @NonNull
+    public static <T> UUPromise<T> resolved(@Nullable final T value)
+    {
+        UUPromise<T> promise = new UUPromise<>();
+        promise.resolve(value);
+        return promise;
+    }
+
+    /**
+     * Creates a promise that has already failed
+     *
+     * @param error the error
+     * @param <T> the value type
+     * @return a rejected promise
+     */
+    @NonNull
+    public static <T> UUPromise<T> rejected(@NonNull final Exception error)
+    {
+        UUPromise<T> promise = new UUPromise<>();
+        promise.reject(error);
+        return promise;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Completion
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Completes the promise with a value
+     *
+     * @param value the value
+     * @return true if this call completed the promise, false if it was already complete
+     */
+    public boolean resolve(@Nullable final T value)
+    {
+        return complete(RESOLVED, value, null);
+    }
+
+    /**
+     * Completes the promise with an error
+     *
+     * @param error the error
+     * @return true if this call completed the promise, false if it was already complete
+     */
+    public boolean reject(@NonNull final Exception error)
+    {
+        return complete(REJECTED, null, error);
+    }
+
+    /**
+     * Cancels the promise.  Continuations see a CancellationException.  Cancelling does not stop
+     * the underlying operation, only its consumers.
+     *
+     * @return true if this call completed the promise, false if it was already complete
+     */
+    public boolean cancel()
+    {
+        return complete(CANCELLED, null, new CancellationException());
+    }
+
+    /**
+     * Completes this promise with the outcome of another
+     *
+     * @param other the promise to follow
+     */
+    public void follow(@NonNull final UUPromise<T> other)
+    {
+        other.whenComplete(null, (v, e) ->
+        {
+            if (e instanceof CancellationException && other.isCancelled())
+            {
+                cancel();
+            }
+            else if (e != null)
+            {
+                reject(e);
+            }
+            else
+            {
+                resolve(v);
+            }
+        });
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // State
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public synchronized boolean isDone()
+    {
+        return (state != PENDING);
+    }
+
+    public synchronized boolean isResolved()
+    {
+        return (state == RESOLVED);
+    }
+
+    public synchronized boolean isRejected()
+    {
+        return (state == REJECTED);
+    }
+
+    public synchronized boolean isCancelled()
+    {
+        return (state == CANCELLED);
+    }
+
+    /**
+     * Gets the value
+     *
+     * @return the value, or null if the promise is pending or did not succeed
+     */
+    @Nullable
+    public synchronized T getValue()
+    {
+        return value;
+    }
+
+    /**
+     * Gets the error
+     *
+     * @return the error, or null if the promise is pending or succeeded
+     */
+    @Nullable
+    public synchronized Exception getError()
+    {
+        return error;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Continuations
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Registers a callback for the outcome of this promise
+     *
+     * @param executor where to run the callback, or null to run it inline
+     * @param callback the callback
+     * @return this promise
+     */
+    @NonNull
+    public UUPromise<T> whenComplete(@Nullable final UUExecutor executor, @NonNull final Callback<T> callback)
+    {
+        Continuation<T> continuation = new Continuation<>(this, executor, callback);
+        boolean done;
+
+        synchronized (this)
+        {
+            done = (state != PENDING);
+            if (!done)
+            {
+                if (continuations == null)
+                {
+                    continuations = new ArrayList<>(2);
+                }
+
+                continuations.add(continuation);
+            }
+        }
+
+        if (done)
+        {
+            continuation.dispatch();
+        }
+
+        return this;
+    }
+
+    /**
+     * Maps the value once this promise succeeds.  The transform runs inline on the completing
+     * thread.
+     *
+     * @param transform the mapping
+     * @param <R> the new value type
+     * @return a promise for the mapped value
+     */
+    @NonNull
+    public <R> UUPromise<R> then(@NonNull final Transform<T, R> transform)
+    {
+        return then(null, transform);
+    }
+
+    /**
+     * Maps the value once this promise succeeds
+     *
+     * @param executor where to run the transform, or null to run it inline
+     * @param transform the mapping
+     * @param <R> the new value type
+     * @return a promise for the mapped value.  Fails if this promise fails or the transform throws.
+     */
+    @NonNull
+    public <R> UUPromise<R> then(@Nullable final UUExecutor executor, @NonNull final Transform<T, R> transform)
+    {
+        UUPromise<R> next = new UUPromise<>();
+
+        whenComplete(executor, (v, e) ->
+        {
+            if (e != null)
+            {
+                next.propagate(this, e);
+                return;
+            }
+
+            if (next.isDone())
+            {
+                return;
+            }
+
+            try
+            {
+                next.resolve(transform.apply(v));
+            }
+            catch (Exception ex)
+            {
+                next.reject(ex);
+            }
+        });
+
+        return next;
+    }
+
+    /**
+     * Starts another async operation once this promise succeeds
+     *
+     * @param executor where to run the transform, or null to run it inline
+     * @param transform returns the next operation
+     * @param <R> the new value type
+     * @return a promise for the next operation's value
+     */
+    @NonNull
+    public <R> UUPromise<R> thenCompose(@Nullable final UUExecutor executor, @NonNull final AsyncTransform<T, R> transform)
+    {
+        UUPromise<R> next = new UUPromise<>();
+
+        whenComplete(executor, (v, e) ->
+        {
+            if (e != null)
+            {
+                next.propagate(this, e);
+                return;
+            }
+
+            if (next.isDone())
+            {
+                return;
+            }
+
+            try
+            {
+                next.follow(transform.apply(v));
+            }
+            catch (Exception ex)
+            {
+                next.reject(ex);
+            }
+        });
+
+        return next;
+    }
+
+    /**
+     * Combines this promise with another
+     *
+     * @param other the other promise
+     * @param combiner merges both values once both succeed.  Runs inline on whichever thread
+     *                 completes last.
+     * @param <B> the other value type
+     * @param <R> the combined value type
+     * @return a promise for the combined value.  Fails as soon as either input fails.
+     */
+    @NonNull
+    public <B, R> UUPromise<R> combine(@NonNull final UUPromise<B> other, @NonNull final Combiner<T, B, R> combiner)
+    {
+        UUPromise<R> next = new UUPromise<>();
+        AtomicInteger remaining = new AtomicInteger(2);
+
+        Callback<Object> onEither = (v, e) ->
+        {
+            if (e != null)
+            {
+                next.reject(e);
+            }
+            else if (remaining.decrementAndGet() == 0 && !next.isDone())
+            {
+                try
+                {
+                    next.resolve(combiner.combine(getValue(), other.getValue()));
+                }
+                catch (Exception ex)
+                {
+                    next.reject(ex);
+                }
+            }
+        };
+
+        whenComplete(null, onEither::onCompleted);
+        other.whenComplete(null, onEither::onCompleted);
+        return next;
+    }
+
+    /**
+     * Combines a list of promises into one
+     *
+     * @param promises the promises
+     * @param <T> the value type
+     * @return a promise for all values, in the same order as the input.  Fails as soon as any
+     *         input fails.
+     */
+    @NonNull
+    public static <T> UUPromise<ArrayList<T>> combine(@NonNull final List<UUPromise<T>> promises)
+    {
+        UUPromise<ArrayList<T>> next = new UUPromise<>();
+        int count = promises.size();
+
+        if (count == 0)
+        {
+            next.resolve(new ArrayList<>());
+            return next;
+        }
+
+        AtomicInteger remaining = new AtomicInteger(count);
+
+        for (UUPromise<T> promise : promises)
+        {
+            promise.whenComplete(null, (v, e) ->
+            {
+                if (e != null)
+                {
+                    next.reject(e);
+                }
+                else if (remaining.decrementAndGet() == 0)
+                {
+                    ArrayList<T> values = new ArrayList<>(count);
+                    for (UUPromise<T> p : promises)
+                    {
+                        values.add(p.getValue());
+                    }
+
+                    next.resolve(values);
+                }
+            });
+        }
+
+        return next;
+    }
+
+    /**
+     * Fails this promise with a TimeoutException if it has not completed in time
+     *
+     * @param timeoutMillis number of milliseconds to wait
+     * @return this promise
+     */
+    @NonNull
+    public UUPromise<T> timeout(final long timeoutMillis)
+    {
+        UUExecutor executor = UUTimer.getExecutor();
+        Runnable expire = () -> reject(new TimeoutException("Timed out after " + timeoutMillis + "ms"));
+
+        executor.postDelayed(expire, timeoutMillis);
+        whenComplete(null, (v, e) -> executor.removeRunnable(expire));
+        return this;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Delegate Adapters
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Gets a delegate that resolves this promise, for passing to existing callback based APIs
+     *
+     * @return a delegate
+     */
+    @NonNull
+    public UUObjectDelegate<T> toObjectDelegate()
+    {
+        return this::resolve;
+    }
+
+    /**
+     * Gets a delegate that resolves this promise, for passing to existing callback based APIs
+     *
+     * @return a delegate
+     */
+    @NonNull
+    public UUNonNullObjectDelegate<T> toNonNullObjectDelegate()
+    {
+        return this::resolve;
+    }
+
+    /**
+     * Gets a delegate that resolves a list promise, for passing to existing callback based APIs
+     *
+     * @param promise the promise to resolve
+     * @param <T> the list element type
+     * @return a delegate
+     */
+    @NonNull
+    public static <T> UUListDelegate<T> toListDelegate(@NonNull final UUPromise<ArrayList<T>> promise)
+    {
+        return promise::resolve;
+    }
+
+    /**
+     * Delivers the outcome of this promise to an existing delegate.  The delegate receives the
+     * value, or null if the promise fails.
+     *
+     * @param executor where to invoke the delegate, or null to invoke it inline
+     * @param delegate the delegate
+     */
+    public void deliver(@Nullable final UUExecutor executor, @Nullable final UUObjectDelegate<T> delegate)
+    {
+        whenComplete(executor, (v, e) -> UUObjectDelegate.safeInvoke(delegate, v));
+    }
+
+    /**
+     * Delivers the value of this promise to an existing delegate.  The delegate is only invoked if
+     * the promise succeeds with a non null value.
+     *
+     * @param executor where to invoke the delegate, or null to invoke it inline
+     * @param delegate the delegate
+     */
+    public void deliverNonNull(@Nullable final UUExecutor executor, @Nullable final UUNonNullObjectDelegate<T> delegate)
+    {
+        whenComplete(executor, (v, e) ->
+        {
+            if (v != null)
+            {
+                UUNonNullObjectDelegate.safeInvoke(delegate, v);
+            }
+        });
+    }
+
+    /**
+     * Delivers the outcome of a list promise to an existing delegate.  The delegate receives an
+     * empty list if the promise fails.
+     *
+     * @param promise the promise
+     * @param executor where to invoke the delegate, or null to invoke it inline
+     * @param delegate the delegate
+     * @param <T> the list element type
+     */
+    public static <T> void deliverList(
+        @NonNull final UUPromise<ArrayList<T>> promise,
+        @Nullable final UUExecutor executor,
+        @Nullable final UUListDelegate<T> delegate)
+    {
+        promise.whenComplete(executor, (v, e) -> UUListDelegate.safeInvoke(delegate, (v != null ? v : new ArrayList<>())));
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private Methods
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private boolean complete(final int newState, @Nullable final T newValue, @Nullable final Exception newError)
+    {
+        ArrayList<Continuation<T>> pending;
+
+        synchronized (this)
+        {
+            if (state != PENDING)
+            {
+                return false;
+            }
+
+            state = newState;
+            value = newValue;
+            error = newError;
+            pending = continuations;
+            continuations = null;
+        }
+
+        if (pending != null)
+        {
+            for (Continuation<T> continuation : pending)
+            {
+                continuation.dispatch();
+            }
+        }
+
+        return true;
+    }
+
+    private void propagate(@NonNull final UUPromise<?> upstream, @NonNull final Exception e)
+    {
+        if (upstream.isCancelled())
+        {
+            cancel();
+        }
+        else
+        {
+            reject(e);
+        }
+    }
+}
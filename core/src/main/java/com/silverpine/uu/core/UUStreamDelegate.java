@@ -0,0 +1,74 @@
+package com.silverpine.uu.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+
+import com.silverpine.uu.logging.UULog;
+
+
+/**
+ * UUStreamDelegate
+ *
+ * Useful Utilities - Callback interface used to deliver a result from an async operation in
+ * chunks as it is produced, rather than as one list at the end.
+ *
+ * Nothing is delivered until the delegate calls request on the subscription handed to
+ * onSubscribe.  Callbacks for a stream are never invoked concurrently.  Exactly one of
+ * onCompleted or onError ends the stream, unless it is cancelled.
+ */
+public interface UUStreamDelegate<T>
+{
+    void onSubscribe(@NonNull final UUStreamSubscription subscription);
+
+    void onChunk(@NonNull final ArrayList<T> chunk);
+
+    void onCompleted();
+
+    void onError(@NonNull final Exception error);
+
+    /**
+     * Creates a stream delegate that requests everything and collects it into one list.  The
+     * delegate receives the full list when the stream completes, or null if the stream fails, so
+     * a failure is never mistaken for a short result.  Nothing is delivered if the stream is
+     * cancelled.
+     *
+     * @param delegate receives the collected list, or null on failure
+     * @param <T> the item type
+     * @return a stream delegate
+     */
+    @NonNull
+    static <T> UUStreamDelegate<T> collect(@Nullable final UUObjectDelegate<ArrayList<T>> delegate)
+    {
+        return new UUStreamDelegate<T>()
+        {
+            private final ArrayList<T> items = new ArrayList<>();
+
+            @Override
+            public void onSubscribe(@NonNull final UUStreamSubscription subscription)
+            {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onChunk(@NonNull final ArrayList<T> chunk)
+            {
+                items.addAll(chunk);
+            }
+
+            @Override
+            public void onCompleted()
+            {
+                UUObjectDelegate.safeInvoke(delegate, items);
+            }
+
+            @Override
+            public void onError(@NonNull final Exception error)
+            {
+                UULog.debug(UUStreamDelegate.class, "collect.onError", error);
+                UUObjectDelegate.safeInvoke(delegate, null);
+            }
+        };
+    }
+}
@@ -0,0 +1,399 @@
+package com.silverpine.uu.core;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.silverpine.uu.logging.UULog;
+
+/**
+ * Producer side of a UUStreamDelegate stream.
+ *
+ * Producers call emit, complete and fail from any thread.  Chunks emitted before the delegate
+ * has requested them are buffered, and producers that want to respect backpressure can check
+ * getRequested before producing more.  Delivery to the delegate is serialized without holding
+ * a lock while the delegate runs, so the delegate may call request from inside onChunk.
+ *
+ * @param <T> the item type
+ */
+@SuppressWarnings("unused")
+public class UUStreamEmitter<T> implements UUStreamSubscription
+{
+    private final @NonNull UUStreamDelegate<T> delegate;
+    private final @Nullable UUExecutor executor;
+    private final @NonNull ConcurrentLinkedQueue<ArrayList<T>> buffer = new ConcurrentLinkedQueue<>();
+    private final @NonNull AtomicLong requested = new AtomicLong();
+    private final @NonNull AtomicInteger workInProgress = new AtomicInteger();
+
+    private volatile boolean done = false;
+    private volatile boolean cancelled = false;
+    private volatile @Nullable Exception error = null;
+    private volatile @Nullable Runnable onCancel = null;
+    private boolean terminated = false;
+
+    // Pulled from only inside the drain loop, one chunk per unit of demand
+    private @Nullable Iterator<ArrayList<T>> source;
+
+    private final @NonNull Runnable drainRunnable = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            drainLoop();
+        }
+    };
+
+    /**
+     * Creates an emitter and subscribes the delegate to it
+     *
+     * @param delegate the stream consumer
+     * @param executor where to deliver callbacks, or null to deliver them on the producing thread
+     */
+    public UUStreamEmitter(@NonNull final UUStreamDelegate<T> delegate, @Nullable final UUExecutor executor)
+    {
+        this(delegate, executor, null);
+    }
+
+    private UUStreamEmitter(
+        @NonNull final UUStreamDelegate<T> delegate,
+        @Nullable final UUExecutor executor,
+        @Nullable final Iterator<ArrayList<T>> source)
+    {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.source = source;
+
+        try
+        {
+            delegate.onSubscribe(this);
+        }
+        catch (Exception ex)
+        {
+            UULog.error(UUStreamEmitter.class, "onSubscribe", ex);
+        }
+    }
+
+    /**
+     * Sets a callback invoked if the delegate cancels the stream, so the producer can stop work
+     *
+     * @param onCancel the callback
+     */
+    public void setOnCancel(@Nullable final Runnable onCancel)
+    {
+        this.onCancel = onCancel;
+
+        if (cancelled)
+        {
+            UURunnable.safeInvoke(onCancel);
+        }
+    }
+
+    /**
+     * Gets the number of chunks the delegate has asked for and not yet received
+     *
+     * @return outstanding demand
+     */
+    public long getRequested()
+    {
+        return requested.get();
+    }
+
+    /**
+     * Checks if the delegate cancelled the stream
+     *
+     * @return true if cancelled
+     */
+    public boolean isCancelled()
+    {
+        return cancelled;
+    }
+
+    /**
+     * Queues a chunk for delivery
+     *
+     * @param chunk the chunk
+     * @return false if the stream has been cancelled or already ended
+     */
+    public boolean emit(@NonNull final ArrayList<T> chunk)
+    {
+        if (cancelled || done)
+        {
+            return false;
+        }
+
+        buffer.offer(chunk);
+        drain();
+        return true;
+    }
+
+    /**
+     * Ends the stream once all buffered chunks have been delivered
+     */
+    public void complete()
+    {
+        done = true;
+        drain();
+    }
+
+    /**
+     * Ends the stream with an error.  Buffered chunks are dropped.
+     *
+     * @param error the error
+     */
+    public void fail(@NonNull final Exception error)
+    {
+        if (done)
+        {
+            return;
+        }
+
+        this.error = error;
+        done = true;
+        drain();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // UUStreamSubscription
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void request(final long count)
+    {
+        if (count <= 0)
+        {
+            return;
+        }
+
+        long current;
+        long next;
+
+        do
+        {
+            current = requested.get();
+            next = current + count;
+            if (next < 0)
+            {
+                next = Long.MAX_VALUE;
+            }
+        }
+        while (!requested.compareAndSet(current, next));
+
+        drain();
+    }
+
+    @Override
+    public void cancel()
+    {
+        if (!cancelled)
+        {
+            cancelled = true;
+            buffer.clear();
+            UURunnable.safeInvoke(onCancel);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Adapters
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Streams an existing list in fixed size chunks.  Chunks are copied out of the list lazily,
+     * one for each chunk the delegate requests, so nothing is buffered ahead of demand.
+     *
+     * @param list the items.  The list must not be modified while it is being streamed.
+     * @param chunkSize maximum items per chunk
+     * @param delegate the stream consumer
+     * @param executor where to deliver callbacks, or null to deliver them on the thread that
+     *                 calls request
+     * @param <T> the item type
+     * @return the emitter
+     */
+    @NonNull
+    public static <T> UUStreamEmitter<T> fromList(
+        @NonNull final List<T> list,
+        final int chunkSize,
+        @NonNull final UUStreamDelegate<T> delegate,
+        @Nullable final UUExecutor executor)
+    {
+        final int size = Math.max(1, chunkSize);
+
+        Iterator<ArrayList<T>> chunks = new Iterator<ArrayList<T>>()
+        {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext()
+            {
+                return (index < list.size());
+            }
+
+            @Override
+            public ArrayList<T> next()
+            {
+                int end = Math.min(list.size(), index + size);
+                ArrayList<T> chunk = new ArrayList<>(list.subList(index, end));
+                index = end;
+                return chunk;
+            }
+        };
+
+        UUStreamEmitter<T> emitter = new UUStreamEmitter<>(delegate, executor, chunks);
+        emitter.drain();
+        return emitter;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private Methods
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void drain()
+    {
+        if (workInProgress.getAndIncrement() != 0)
+        {
+            return;
+        }
+
+        if (executor != null && !executor.isCurrentThread())
+        {
+            executor.post(drainRunnable);
+        }
+        else
+        {
+            drainLoop();
+        }
+    }
+
+    private void drainLoop()
+    {
+        int missed = 1;
+
+        while (true)
+        {
+            deliverPending();
+
+            missed = workInProgress.addAndGet(-missed);
+            if (missed == 0)
+            {
+                break;
+            }
+        }
+    }
+
+    private void deliverPending()
+    {
+        if (terminated)
+        {
+            return;
+        }
+
+        if (cancelled)
+        {
+            buffer.clear();
+            source = null;
+            return;
+        }
+
+        Exception failure = error;
+        if (failure != null)
+        {
+            terminated = true;
+            buffer.clear();
+
+            try
+            {
+                delegate.onError(failure);
+            }
+            catch (Exception ex)
+            {
+                UULog.error(UUStreamEmitter.class, "onError", ex);
+            }
+
+            return;
+        }
+
+        // An exhausted source completes the stream even if nothing was requested
+        if (source != null && buffer.isEmpty() && !source.hasNext())
+        {
+            source = null;
+            done = true;
+        }
+
+        while (!cancelled && requested.get() > 0)
+        {
+            ArrayList<T> chunk = buffer.poll();
+            if (chunk == null)
+            {
+                chunk = pullFromSource();
+            }
+
+            if (chunk == null)
+            {
+                break;
+            }
+
+            if (requested.get() != Long.MAX_VALUE)
+            {
+                requested.decrementAndGet();
+            }
+
+            try
+            {
+                delegate.onChunk(chunk);
+            }
+            catch (Exception ex)
+            {
+                UULog.error(UUStreamEmitter.class, "onChunk", ex);
+            }
+        }
+
+        if (done && !cancelled && buffer.isEmpty() && source == null && error == null)
+        {
+            terminated = true;
+
+            try
+            {
+                delegate.onCompleted();
+            }
+            catch (Exception ex)
+            {
+                UULog.error(UUStreamEmitter.class, "onCompleted", ex);
+            }
+        }
+    }
+
+    @Nullable
+    private ArrayList<T> pullFromSource()
+    {
+        Iterator<ArrayList<T>> it = source;
+        if (it == null)
+        {
+            return null;
+        }
+
+        try
+        {
+            if (it.hasNext())
+            {
+                return it.next();
+            }
+
+            source = null;
+            done = true;
+        }
+        catch (Exception ex)
+        {
+            source = null;
+
+            // Re-enters the drain loop, which delivers the error
+            fail(ex);
+        }
+
+        return null;
+    }
+}
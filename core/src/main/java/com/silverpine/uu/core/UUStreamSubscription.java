@@ -0,0 +1,20 @@
+package com.silverpine.uu.core;
+
+/**
+ * Flow control handle given to a UUStreamDelegate when it subscribes to a stream
+ */
+public interface UUStreamSubscription
+{
+    /**
+     * Asks the producer for more chunks.  Requests are additive, and the producer never delivers
+     * more chunks than have been requested.
+     *
+     * @param count number of additional chunks the delegate is ready for
+     */
+    void request(final long count);
+
+    /**
+     * Stops the stream.  No further callbacks are delivered and any buffered chunks are dropped.
+     */
+    void cancel();
+}
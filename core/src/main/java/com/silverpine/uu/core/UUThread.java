@@ -2,9 +2,12 @@ package com.silverpine.uu.core;
 
 import android.os.Handler;
 import android.os.Looper;
+import android.os.Process;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.util.concurrent.Future;
+
 import com.silverpine.uu.logging.UULog;
 
 /**
@@ -12,6 +15,14 @@ import com.silverpine.uu.logging.UULog;
  */
 public class UUThread
 {
+    private static final String BACKGROUND_EXECUTOR_NAME = "UUBackground";
+    private static final long BACKGROUND_KEEP_ALIVE_MILLIS = 30000;
+    private static final int BACKGROUND_MAX_THREADS = 64;
+
+    private static volatile UUPoolExecutor backgroundExecutor = null;
+    private static volatile Handler mainHandler = null;
+    private static volatile UUMainThreadDispatcher mainDispatcher = null;
+
     /**
      * Checks to see if the currently running thread is the main thread or not
      *
@@ -37,12 +48,12 @@ public class UUThread
             }
             else
             {
-                new Handler(Looper.getMainLooper()).post(new Runnable()
+                getMainHandler().post(new Runnable()
                 {
                     @Override
                     public void run()
                     {
-                        runOnMainThread(r);
+                        safeInvokeRunnable(r);
                     }
                 });
             }
@@ -53,6 +64,96 @@ public class UUThread
         }
     }
 
+    /**
+     * Safely runs a block of code on the main thread as part of a batch.  All runnables queued
+     * before the main thread gets to the batch run in a single Handler message, which keeps a
+     * burst of UI updates from flooding the main looper.
+     *
+     * @param r the runnable.
+     */
+    public static void runOnMainThreadBatched(final @Nullable Runnable r)
+    {
+        runOnMainThreadBatched(null, r);
+    }
+
+    /**
+     * Safely runs a block of code on the main thread as part of a batch.  If a runnable with the
+     * same key is still waiting for its batch, it is replaced, so only the latest one runs.
+     *
+     * @param key optional de-duplication key
+     * @param r the runnable.
+     */
+    public static void runOnMainThreadBatched(final @Nullable Object key, final @Nullable Runnable r)
+    {
+        try
+        {
+            if (r == null)
+            {
+                return;
+            }
+
+            UUMainThreadDispatcher dispatcher = getMainDispatcher();
+
+            if (key == null && isMainThread() && !dispatcher.hasPending())
+            {
+                safeInvokeRunnable(r);
+            }
+            else
+            {
+                dispatcher.dispatch(key, r);
+            }
+        }
+        catch (Exception ex)
+        {
+            UULog.debug(UUThread.class, "runOnMainThreadBatched", ex);
+        }
+    }
+
+    /**
+     * Gets a shared Handler for the main looper
+     *
+     * @return the main thread handler
+     */
+    @NonNull
+    public static Handler getMainHandler()
+    {
+        Handler handler = mainHandler;
+        if (handler == null)
+        {
+            synchronized (UUThread.class)
+            {
+                handler = mainHandler;
+                if (handler == null)
+                {
+                    handler = new Handler(Looper.getMainLooper());
+                    mainHandler = handler;
+                }
+            }
+        }
+
+        return handler;
+    }
+
+    @NonNull
+    private static UUMainThreadDispatcher getMainDispatcher()
+    {
+        UUMainThreadDispatcher dispatcher = mainDispatcher;
+        if (dispatcher == null)
+        {
+            synchronized (UUThread.class)
+            {
+                dispatcher = mainDispatcher;
+                if (dispatcher == null)
+                {
+                    dispatcher = new UUMainThreadDispatcher(getMainHandler());
+                    mainDispatcher = dispatcher;
+                }
+            }
+        }
+
+        return dispatcher;
+    }
+
     /**
      * Safely runs a block of code on a background thread.
      *
@@ -62,21 +163,152 @@ public class UUThread
     {
         try
         {
-            Thread t = new Thread()
+            UUPoolExecutor executor = getBackgroundExecutor();
+            executor.execute(new Runnable()
             {
                 @Override
                 public void run()
                 {
-                    safeInvokeRunnable(r);
+                    safeInvokeRunnable(executor, r);
                 }
-            };
+            });
+        }
+        catch (Exception ex)
+        {
+            UULog.error(UUThread.class, "runOnBackgroundThread", "Unable to run background work", ex);
+        }
+    }
 
-            t.start();
+    /**
+     * Safely runs a block of code on a background thread.  If the token is cancelled before the
+     * runnable starts, it is removed from the background queue immediately and never runs.
+     *
+     * @param token the cancellation token
+     * @param r the runnable.
+     */
+    public static void runOnBackgroundThread(final @NonNull UUCancellationToken token, final @Nullable Runnable r)
+    {
+        UUPoolExecutor executor = getBackgroundExecutor();
+        Runnable bound = token.bind(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                safeInvokeRunnable(executor, r);
+            }
+        }, executor::remove);
+
+        if (bound == null)
+        {
+            return;
+        }
+
+        try
+        {
+            executor.execute(bound);
+        }
+        catch (Exception ex)
+        {
+            token.unbind(bound);
+            UULog.error(UUThread.class, "runOnBackgroundThread", "Unable to run background work", ex);
+        }
+    }
+
+    /**
+     * Safely runs a block of code on a background thread, returning a future that can be used to
+     * cancel it or wait for it.
+     *
+     * @param r the runnable.
+     *
+     * @return a future, or null if the background executor rejected the work
+     */
+    @Nullable
+    public static Future<?> submitToBackgroundThread(final @Nullable Runnable r)
+    {
+        try
+        {
+            UUPoolExecutor executor = getBackgroundExecutor();
+            return executor.submit(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    safeInvokeRunnable(executor, r);
+                }
+            });
         }
         catch (Exception ex)
         {
-            UULog.debug(UUThread.class, "runOnBackgroundThread", ex);
+            UULog.error(UUThread.class, "submitToBackgroundThread", "Unable to run background work", ex);
+            return null;
+        }
+    }
+
+    /**
+     * Gets the shared executor used by runOnBackgroundThread, creating it on first use
+     *
+     * @return the background executor
+     */
+    @NonNull
+    public static UUPoolExecutor getBackgroundExecutor()
+    {
+        UUPoolExecutor executor = backgroundExecutor;
+        if (executor == null)
+        {
+            synchronized (UUThread.class)
+            {
+                executor = backgroundExecutor;
+                if (executor == null)
+                {
+                    executor = createDefaultBackgroundExecutor();
+                    backgroundExecutor = executor;
+                }
+            }
+        }
+
+        return executor;
+    }
+
+    /**
+     * Replaces the shared executor used by runOnBackgroundThread.  The previous executor is shut
+     * down once its queued work has run.
+     *
+     * @param executor the new executor
+     */
+    public static void setBackgroundExecutor(@NonNull final UUPoolExecutor executor)
+    {
+        UUPoolExecutor previous;
+
+        synchronized (UUThread.class)
+        {
+            previous = backgroundExecutor;
+            backgroundExecutor = executor;
         }
+
+        if (previous != null && previous != executor)
+        {
+            previous.shutdown();
+        }
+    }
+
+    @NonNull
+    private static UUPoolExecutor createDefaultBackgroundExecutor()
+    {
+        int cpuCount = Runtime.getRuntime().availableProcessors();
+        int coreSize = Math.max(2, Math.min(cpuCount - 1, 4));
+
+        // Work is handed straight to a thread rather than queued behind busy ones, so blocking
+        // runnables, and runnables that wait on each other, behave as they did with a thread per
+        // call.  Idle threads beyond the core size are reclaimed after the keep alive.  Once every
+        // thread is busy the caller runs the work itself, so nothing is dropped.
+        return new UUPoolExecutor(
+            BACKGROUND_EXECUTOR_NAME,
+            coreSize,
+            Math.max(coreSize, BACKGROUND_MAX_THREADS),
+            BACKGROUND_KEEP_ALIVE_MILLIS,
+            0,
+            Process.THREAD_PRIORITY_BACKGROUND,
+            UUPoolExecutor.RejectionPolicy.CALLER_RUNS);
     }
 
     private static void safeInvokeRunnable(final @Nullable Runnable r)
@@ -101,6 +333,27 @@ public class UUThread
         }
     }
 
+    /**
+     * Runs background work, counting any exception it throws as a failure of the pool
+     */
+    private static void safeInvokeRunnable(final @NonNull UUPoolExecutor executor, final @Nullable Runnable r)
+    {
+        if (r == null)
+        {
+            return;
+        }
+
+        try
+        {
+            r.run();
+        }
+        catch (Exception ex)
+        {
+            executor.recordFailure();
+            UULog.debug(UUThread.class, "safeInvokeRunnable.run", ex);
+        }
+    }
+
     public static void safeSleep(@NonNull final String fromWhere, final long millis)
     {
         try
@@ -0,0 +1,84 @@
+package com.silverpine.uu.core;
+
+import android.os.Process;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.silverpine.uu.logging.UULog;
+
+/**
+ * Thread factory for pool backed executors.  Threads are named after their executor, run at a
+ * configurable android thread priority, and remember which executor owns them.
+ */
+final class UUThreadFactory implements ThreadFactory
+{
+    private static final ThreadLocal<UUExecutor> currentExecutor = new ThreadLocal<>();
+
+    private final @NonNull String name;
+    private final int priority;
+    private final @NonNull AtomicInteger threadCount = new AtomicInteger();
+    private volatile UUExecutor owner = null;
+
+    UUThreadFactory(@NonNull final String name, final int priority)
+    {
+        this.name = name;
+        this.priority = priority;
+    }
+
+    void setOwner(@NonNull final UUExecutor owner)
+    {
+        this.owner = owner;
+    }
+
+    @Override
+    public Thread newThread(@NonNull final Runnable runnable)
+    {
+        Thread t = new Thread(() ->
+        {
+            prepareCurrentThread();
+            runnable.run();
+        }, nextThreadName());
+
+        t.setDaemon(true);
+        return t;
+    }
+
+    /**
+     * Applies the thread priority and ownership to the calling thread.  Called once from each new
+     * thread before it runs any work.
+     */
+    void prepareCurrentThread()
+    {
+        currentExecutor.set(owner);
+
+        try
+        {
+            Process.setThreadPriority(priority);
+        }
+        catch (Exception ex)
+        {
+            UULog.debug(UUThreadFactory.class, "prepareCurrentThread", ex);
+        }
+    }
+
+    @NonNull
+    String nextThreadName()
+    {
+        return name + "-" + threadCount.incrementAndGet();
+    }
+
+    /**
+     * Gets the executor that owns the calling thread
+     *
+     * @return the executor, or null if the thread was not created by a UUThreadFactory
+     */
+    @Nullable
+    static UUExecutor currentExecutor()
+    {
+        return currentExecutor.get();
+    }
+}
@@ -1,11 +1,16 @@
 package com.silverpine.uu.core;
 
+import android.os.SystemClock;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.silverpine.uu.logging.UULog;
 
@@ -35,21 +40,134 @@ public class UUTimer
         void onTimer(@NonNull UUTimer timer, @Nullable Object userInfo);
     }
 
+    /**
+     * How a repeating timer computes its next deadline
+     */
+    public enum Mode
+    {
+        /**
+         * The next deadline is one interval after the delegate returns.  The period stretches by
+         * the time spent in the delegate.
+         */
+        FIXED_DELAY,
+
+        /**
+         * Deadlines are fixed multiples of the interval from the first start, regardless of how
+         * long the delegate takes.
+         */
+        FIXED_RATE
+    }
+
+    /**
+     * What a fixed rate timer does when one or more deadlines have already passed by the time it
+     * is rescheduled
+     */
+    public enum MissedTickPolicy
+    {
+        /**
+         * Drop the missed ticks and wait for the next deadline on the original schedule
+         */
+        SKIP,
+
+        /**
+         * Fire once for every missed tick, back to back, until the timer is back on schedule
+         */
+        CATCH_UP,
+
+        /**
+         * Fire once immediately in place of all the missed ticks, then continue on the original
+         * schedule
+         */
+        COALESCE
+    }
+
+    /**
+     * Where a timer invokes its delegate
+     */
+    public enum DispatchTarget
+    {
+        /**
+         * The shared UUTimer thread.  Cheapest, but a slow delegate delays every other timer.
+         */
+        TIMER_THREAD,
+
+        /**
+         * The main thread
+         */
+        MAIN_THREAD,
+
+        /**
+         * The shared UUThread background pool
+         */
+        BACKGROUND
+    }
+
     ////////////////////////////////////////////////////////////////////////////////////////////////
     // Data Members
     ////////////////////////////////////////////////////////////////////////////////////////////////
 
     private @NonNull String timerId = "";
-    private @Nullable Object userInfo = null;
-    private @Nullable TimerDelegate timerDelegate = null;
-    private long interval = 0;
+    private volatile @NonNull Callback callback;
+    private volatile long interval = 0;
     private boolean repeat = false;
-    private @Nullable Runnable runnable;
+    private final @NonNull Runnable runnable;
+    private volatile boolean active = false;
     private long lastFireTime = 0;
+    private @NonNull Mode mode = Mode.FIXED_DELAY;
+    private @NonNull MissedTickPolicy missedTickPolicy = MissedTickPolicy.SKIP;
+    private long nextDeadline = 0;
+    private long leeway = 0;
+    private final @NonNull AtomicLong fireCount = new AtomicLong();
+    private final @NonNull AtomicLong missedTickCount = new AtomicLong();
+    private final @NonNull UUHistogram jitter = new UUHistogram();
+    private volatile boolean pending = false;
+    private final @NonNull AtomicInteger generation = new AtomicInteger();
+    private volatile int firedGeneration = 0;
+    private volatile @NonNull DispatchTarget dispatchTarget = DispatchTarget.TIMER_THREAD;
+    private final @NonNull AtomicLong slowDelegateCount = new AtomicLong();
+    private final @NonNull AtomicLong skippedDelegateCount = new AtomicLong();
+    private final @NonNull AtomicBoolean delegateInFlight = new AtomicBoolean();
+    private final @NonNull Runnable delegateRunnable;
+    private volatile @Nullable UUCancellationToken cancellationToken = null;
+    private final @NonNull Runnable cancellationCallback = this::cancel;
+    private @Nullable UUTimerScheduler activeScheduler = null;
 
-    private static final @NonNull HashMap<String, UUTimer> theActiveTimers = new HashMap<>();
+    /**
+     * Delegate and user info published together, so a restart from another thread never fires
+     * with a new delegate and old user info
+     */
+    private static final class Callback
+    {
+        private final @Nullable TimerDelegate delegate;
+        private final @Nullable Object userInfo;
 
-    private static UUWorkerThread workerThread = new UUWorkerThread("UUTimer");
+        private Callback(final @Nullable TimerDelegate delegate, final @Nullable Object userInfo)
+        {
+            this.delegate = delegate;
+            this.userInfo = userInfo;
+        }
+    }
+
+    /**
+     * Per timer state owned by the active UUTimerScheduler
+     */
+    @Nullable Object schedulerToken = null;
+
+    private static final @NonNull ConcurrentHashMap<String, UUTimer> theActiveTimers = new ConcurrentHashMap<>();
+
+    private static final UUExecutor executor = UUExecutors.looper("UUTimer");
+    private static volatile @NonNull UUTimerScheduler scheduler = new UUHandlerTimerScheduler(executor);
+
+    public static final long DEFAULT_DELEGATE_TIME_BUDGET = 16;
+    private static volatile long delegateTimeBudget = DEFAULT_DELEGATE_TIME_BUDGET;
+    private static final @NonNull AtomicLong totalSlowDelegateCount = new AtomicLong();
+
+    private static final long metricsStartTime = SystemClock.uptimeMillis();
+    private static final @NonNull AtomicLong totalStartCount = new AtomicLong();
+    private static final @NonNull AtomicLong totalCancelCount = new AtomicLong();
+    private static final @NonNull AtomicLong totalFireCount = new AtomicLong();
+    private static final @NonNull UUHistogram totalLateness = new UUHistogram();
+    private static final @NonNull UUHistogram totalDelegateTime = new UUHistogram();
 
     ////////////////////////////////////////////////////////////////////////////////////////////////
     // Data Accessors
@@ -72,7 +190,7 @@ public class UUTimer
      */
     public @Nullable Object getUserInfo()
     {
-        return userInfo;
+        return callback.userInfo;
     }
 
     /**
@@ -95,6 +213,138 @@ public class UUTimer
         return interval;
     }
 
+    /**
+     * Gets the repeat mode
+     *
+     * @return the mode
+     */
+    public @NonNull Mode getMode()
+    {
+        return mode;
+    }
+
+    /**
+     * Gets the policy for missed fixed rate ticks
+     *
+     * @return the policy
+     */
+    public @NonNull MissedTickPolicy getMissedTickPolicy()
+    {
+        return missedTickPolicy;
+    }
+
+    /**
+     * Gets where the delegate is invoked
+     *
+     * @return the dispatch target
+     */
+    public @NonNull DispatchTarget getDispatchTarget()
+    {
+        return dispatchTarget;
+    }
+
+    /**
+     * Sets where the delegate is invoked.  Delegates dispatched off the timer thread run
+     * asynchronously, so a FIXED_DELAY timer measures its next interval from the dispatch rather
+     * than from the delegate returning.  A timer never has more than one delegate call in flight,
+     * a tick that fires while the previous call is still queued or running is skipped.
+     *
+     * @param dispatchTarget the dispatch target
+     */
+    public void setDispatchTarget(final @NonNull DispatchTarget dispatchTarget)
+    {
+        this.dispatchTarget = dispatchTarget;
+    }
+
+    /**
+     * Gets the number of times the delegate ran longer than the delegate time budget
+     *
+     * @return slow delegate count
+     */
+    public long getSlowDelegateCount()
+    {
+        return slowDelegateCount.get();
+    }
+
+    /**
+     * Gets the number of ticks whose delegate call was skipped because the previous call
+     * dispatched off the timer thread had not finished
+     *
+     * @return skipped delegate count
+     */
+    public long getSkippedDelegateCount()
+    {
+        return skippedDelegateCount.get();
+    }
+
+    /**
+     * Gets the coalescing leeway
+     *
+     * @return number of milliseconds the timer may fire late
+     */
+    public long getLeeway()
+    {
+        return leeway;
+    }
+
+    /**
+     * Sets how late the timer is allowed to fire.  A non zero leeway rounds each deadline up to a
+     * shared boundary, so timers with nearby deadlines fire together in a single wakeup of the
+     * timer thread instead of one wakeup each.  Takes effect the next time the timer is scheduled.
+     *
+     * @param leeway number of milliseconds the timer may fire late, or zero to fire on time
+     */
+    public void setLeeway(final long leeway)
+    {
+        this.leeway = Math.max(0, leeway);
+    }
+
+    /**
+     * Gets the number of times the timer has fired
+     *
+     * @return fire count
+     */
+    public long getFireCount()
+    {
+        return fireCount.get();
+    }
+
+    /**
+     * Gets the number of fixed rate ticks dropped by the SKIP or COALESCE policies
+     *
+     * @return missed tick count
+     */
+    public long getMissedTickCount()
+    {
+        return missedTickCount.get();
+    }
+
+    /**
+     * Gets the distribution of how late the timer fired relative to its deadline
+     *
+     * @return a point in time copy of the lateness histogram in milliseconds
+     */
+    public @NonNull UUHistogram getJitter()
+    {
+        return jitter.copy();
+    }
+
+    /**
+     * Checks if the timer is waiting to fire
+     *
+     * @return true if the timer is scheduled
+     */
+    public boolean isPending()
+    {
+        return pending;
+    }
+
+    @NonNull
+    Runnable getRunnable()
+    {
+        return runnable;
+    }
+
     ////////////////////////////////////////////////////////////////////////////////////////////////
     // Construction
     ////////////////////////////////////////////////////////////////////////////////////////////////
@@ -114,12 +364,36 @@ public class UUTimer
         final boolean repeat,
         final @Nullable Object userInfo,
         final @Nullable TimerDelegate delegate)
+    {
+        this(timerId, interval, repeat, Mode.FIXED_DELAY, MissedTickPolicy.SKIP, userInfo, delegate);
+    }
+
+    /**
+     * Creates a timer.
+     *
+     * @param timerId timer ID. it is up to callers to enforce unique ID's
+     * @param interval timer interval in milliseconds
+     * @param repeat whether the timer repeats or fires once.
+     * @param mode how a repeating timer computes its next deadline
+     * @param missedTickPolicy what a fixed rate timer does when it falls behind
+     * @param userInfo optional user info to pass along with the timer delegate
+     * @param delegate the timer callback
+     */
+    public UUTimer(
+        final @NonNull String timerId,
+        final long interval,
+        final boolean repeat,
+        final @NonNull Mode mode,
+        final @NonNull MissedTickPolicy missedTickPolicy,
+        final @Nullable Object userInfo,
+        final @Nullable TimerDelegate delegate)
     {
         this.timerId = timerId;
+        this.mode = mode;
+        this.missedTickPolicy = missedTickPolicy;
         this.interval = interval;
         this.repeat = repeat;
-        this.userInfo = userInfo;
-        this.timerDelegate = delegate;
+        this.callback = new Callback(delegate, userInfo);
 
         this.runnable = new Runnable()
         {
@@ -129,6 +403,22 @@ public class UUTimer
                 safeInvokeRun();
             }
         };
+
+        this.delegateRunnable = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    handlerTimerFired();
+                }
+                finally
+                {
+                    delegateInFlight.set(false);
+                }
+            }
+        };
     }
 
     /**
@@ -136,44 +426,132 @@ public class UUTimer
      */
     public void start()
     {
+        active = true;
+        addTimer(this);
+        safeStartTimer();
+    }
+
+    /**
+     * Starts the timer, and cancels it if the token is cancelled before the timer finishes
+     *
+     * @param token the cancellation token
+     */
+    public void start(final @NonNull UUCancellationToken token)
+    {
+        if (token.isCancelled())
+        {
+            return;
+        }
+
+        UUCancellationToken previous = cancellationToken;
+        if (previous != null && previous != token)
+        {
+            previous.unregister(cancellationCallback);
+        }
+
+        // Register first, so a one shot that fires and cancels straight away also unregisters
+        cancellationToken = token;
+        if (!token.register(cancellationCallback))
+        {
+            return;
+        }
+
+        active = true;
         addTimer(this);
+
+        if (!safeStartTimer())
+        {
+            cancel();
+        }
+    }
+
+    /**
+     * Restarts the timer from now, replacing its pending deadline in place.  The timer instance,
+     * its runnable and any scheduler state are reused.  A one shot timer may restart itself from
+     * its own delegate to fire again, for example as a keep alive.
+     */
+    public void restart()
+    {
+        if (!active)
+        {
+            start();
+            return;
+        }
+
         safeStartTimer();
     }
 
     /**
-     * Cancels the timer
+     * Restarts the timer from now with a new interval.
+     *
+     * @param interval timer interval in milliseconds
+     */
+    public void restart(final long interval)
+    {
+        this.interval = interval;
+        restart();
+    }
+
+    /**
+     * Cancels the timer.  A cancelled timer can be started again.
      */
     public void cancel()
     {
+        active = false;
         safeCancelTimer();
-        runnable = null;
         removeTimer(this);
+
+        UUCancellationToken token = cancellationToken;
+        if (token != null)
+        {
+            cancellationToken = null;
+            token.unregister(cancellationCallback);
+        }
     }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////
     // Private Methods
     ////////////////////////////////////////////////////////////////////////////////////////////////
 
-    private void safeStartTimer()
+    private boolean safeStartTimer()
+    {
+        totalStartCount.incrementAndGet();
+        lastFireTime = System.currentTimeMillis();
+        return safeScheduleTimer(SystemClock.uptimeMillis() + interval);
+    }
+
+    private boolean safeScheduleTimer(final long deadline)
     {
         try
         {
-            if (runnable != null)
+            if (active)
             {
-                lastFireTime = System.currentTimeMillis();
-
                 if (LOGGING_ENABLED)
                 {
-                    UULog.debug(getClass(), "safeStartTimer." + timerId, "interval: " + interval + ", expectedFireTime: " + UUDate.formatDate(System.currentTimeMillis() + interval, UUDate.RFC_3999_DATE_TIME_WITH_MILLIS_FORMAT, TimeZone.getDefault()));
+                    UULog.debug(getClass(), "safeScheduleTimer." + timerId, "interval: " + interval + ", expectedFireTime: " + UUDate.formatDate(System.currentTimeMillis() + (deadline - SystemClock.uptimeMillis()), UUDate.RFC_3999_DATE_TIME_WITH_MILLIS_FORMAT, TimeZone.getDefault()));
                 }
 
-                workerThread.postDelayed(runnable, interval);
+                nextDeadline = deadline;
+                generation.incrementAndGet();
+
+                UUTimerScheduler current = scheduler;
+                if (pending && activeScheduler != null && activeScheduler != current)
+                {
+                    activeScheduler.cancel(this);
+                }
+
+                activeScheduler = current;
+                current.schedule(this, alignDeadline(deadline, leeway));
+                pending = true;
+                return true;
             }
         }
         catch (Exception ex)
         {
-            UULog.debug(getClass(), "safeStartTimer", ex);
+            UULog.debug(getClass(), "safeScheduleTimer", ex);
         }
+
+        return false;
     }
 
     private void safeCancelTimer()
@@ -182,12 +560,15 @@ public class UUTimer
         {
             if (LOGGING_ENABLED)
             {
-                UULog.debug(getClass(), "safeCancelTimer." + timerId, "Runnable is " + (runnable != null ? "not null" : "null"));
+                UULog.debug(getClass(), "safeCancelTimer." + timerId, "active: " + active + ", pending: " + pending);
             }
 
-            if (runnable != null)
+            UUTimerScheduler current = activeScheduler;
+            if (pending && current != null)
             {
-                workerThread.removeRunnable(runnable);
+                current.cancel(this);
+                pending = false;
+                totalCancelCount.incrementAndGet();
             }
         }
         catch (Exception ex)
@@ -196,32 +577,120 @@ public class UUTimer
         }
     }
 
-    private void handlerTimerFired()
+    /**
+     * Called by the scheduler when the timer's deadline has passed
+     */
+    void onSchedulerFired()
     {
+        safeInvokeRun();
+    }
+
+    private void dispatchTimerFired()
+    {
+        DispatchTarget target = dispatchTarget;
+        if (target == DispatchTarget.TIMER_THREAD)
+        {
+            handlerTimerFired();
+
+            // A one shot timer that was restarted from its own delegate stays active
+            if (!repeat && generation.get() == firedGeneration)
+            {
+                cancel();
+            }
+
+            return;
+        }
+
+        // Settle one shot state on the timer thread so a restart made while the delegate is
+        // queued, or from the delegate itself, is never undone afterwards
+        if (!repeat)
+        {
+            cancel();
+        }
+
+        if (!delegateInFlight.compareAndSet(false, true))
+        {
+            skippedDelegateCount.incrementAndGet();
+
+            if (LOGGING_ENABLED)
+            {
+                UULog.debug(getClass(), "dispatchTimerFired", "timerId: " + timerId + ", previous delegate still running, skipping");
+            }
+
+            return;
+        }
+
         try
         {
-            if (timerDelegate != null)
+            if (target == DispatchTarget.MAIN_THREAD)
+            {
+                if (UUThread.isMainThread())
+                {
+                    delegateRunnable.run();
+                }
+                else
+                {
+                    UUThread.getMainHandler().post(delegateRunnable);
+                }
+            }
+            else
             {
-                timerDelegate.onTimer(this, userInfo);
+                UUThread.getBackgroundExecutor().execute(delegateRunnable);
             }
         }
         catch (Exception ex)
         {
-            UULog.debug(getClass(), "handlerTimerFired", ex);
+            delegateInFlight.set(false);
+            UULog.debug(getClass(), "dispatchTimerFired", ex);
         }
-        finally
+    }
+
+    private void handlerTimerFired()
+    {
+        try
         {
-            if (!repeat)
+            Callback c = callback;
+            if (c.delegate != null)
             {
-                cancel();
+                long start = System.nanoTime();
+                c.delegate.onTimer(this, c.userInfo);
+                long durationMicros = (System.nanoTime() - start) / 1000L;
+                long duration = durationMicros / 1000L;
+
+                totalDelegateTime.record(durationMicros);
+
+                long budget = delegateTimeBudget;
+                if (budget > 0 && duration > budget)
+                {
+                    slowDelegateCount.incrementAndGet();
+                    totalSlowDelegateCount.incrementAndGet();
+                    UULog.warn(getClass(), "handlerTimerFired", "timerId: " + timerId + ", delegate took " + duration + "ms, budget: " + budget + "ms, dispatchTarget: " + dispatchTarget);
+                }
             }
         }
+        catch (Exception ex)
+        {
+            UULog.debug(getClass(), "handlerTimerFired", ex);
+        }
     }
 
     private void safeInvokeRun()
     {
         try
         {
+            if (!active)
+            {
+                return;
+            }
+
+            pending = false;
+
+            long lateness = Math.max(0, SystemClock.uptimeMillis() - nextDeadline);
+            jitter.record(lateness);
+            totalLateness.record(lateness);
+            fireCount.incrementAndGet();
+            totalFireCount.incrementAndGet();
+
             if (LOGGING_ENABLED)
             {
                 long timeSinceFired = System.currentTimeMillis() - lastFireTime;
@@ -235,15 +704,13 @@ public class UUTimer
                     ", ActualInterval: " + timeSinceFired);
             }
 
-            handlerTimerFired();
+            firedGeneration = generation.get();
+            dispatchTimerFired();
 
             if (repeat)
             {
-                safeStartTimer();
-            }
-            else
-            {
-                safeCancelTimer();
+                lastFireTime = System.currentTimeMillis();
+                safeScheduleTimer(nextRepeatDeadline(SystemClock.uptimeMillis()));
             }
         }
         catch (Exception ex)
@@ -252,22 +719,67 @@ public class UUTimer
         }
     }
 
+    private long nextRepeatDeadline(final long now)
+    {
+        if (mode != Mode.FIXED_RATE || interval <= 0)
+        {
+            return now + interval;
+        }
+
+        long deadline = nextDeadline + interval;
+        if (deadline > now)
+        {
+            return deadline;
+        }
+
+        long missed = ((now - deadline) / interval) + 1;
+
+        switch (missedTickPolicy)
+        {
+            case CATCH_UP:
+                return deadline;
+
+            case COALESCE:
+                missedTickCount.addAndGet(missed - 1);
+                return deadline + ((missed - 1) * interval);
+
+            default:
+                missedTickCount.addAndGet(missed);
+                return deadline + (missed * interval);
+        }
+    }
+
     ////////////////////////////////////////////////////////////////////////////////////////////////
     // Private Class Methods
     ////////////////////////////////////////////////////////////////////////////////////////////////
 
-    private static void addTimer(final @NonNull UUTimer timer)
+    /**
+     * Rounds a deadline up to the largest power of two boundary that does not exceed the leeway.
+     * Every timer with the same granularity and a deadline in the same window gets the exact same
+     * deadline.
+     */
+    static long alignDeadline(final long deadline, final long leeway)
+    {
+        if (leeway <= 1 || deadline <= 0)
+        {
+            return deadline;
+        }
+
+        long granularity = Long.highestOneBit(leeway);
+        return ((deadline + granularity - 1) / granularity) * granularity;
+    }
+
+    @Nullable
+    private static UUTimer addTimer(final @NonNull UUTimer timer)
     {
         try
         {
-            synchronized (theActiveTimers)
-            {
-                theActiveTimers.put(timer.getTimerId(), timer);
-            }
+            return theActiveTimers.put(timer.getTimerId(), timer);
         }
         catch (Exception ex)
         {
             UULog.error(UUTimer.class, "addTimer", ex);
+            return null;
         }
     }
 
@@ -275,10 +787,8 @@ public class UUTimer
     {
         try
         {
-            synchronized (theActiveTimers)
-            {
-                theActiveTimers.remove(timer.getTimerId());
-            }
+            // Only remove the entry if it still maps to this timer, a restart may have replaced it
+            theActiveTimers.remove(timer.getTimerId(), timer);
         }
         catch (Exception ex)
         {
@@ -290,6 +800,89 @@ public class UUTimer
     // Public Class Methods
     ////////////////////////////////////////////////////////////////////////////////////////////////
 
+    /**
+     * Gets the executor timers fire on
+     *
+     * @return the timer executor
+     */
+    public static @NonNull UUExecutor getExecutor()
+    {
+        return executor;
+    }
+
+    /**
+     * Gets a snapshot of timer metrics across all timers
+     *
+     * @return a metrics snapshot
+     */
+    public static @NonNull UUTimerMetrics getMetrics()
+    {
+        return new UUTimerMetrics(
+            SystemClock.uptimeMillis(),
+            metricsStartTime,
+            theActiveTimers.size(),
+            totalStartCount.get(),
+            totalCancelCount.get(),
+            totalFireCount.get(),
+            totalSlowDelegateCount.get(),
+            totalLateness.copy(),
+            totalDelegateTime.copy());
+    }
+
+    /**
+     * Gets the delegate time budget
+     *
+     * @return number of milliseconds a delegate may run before it is reported as slow
+     */
+    public static long getDelegateTimeBudget()
+    {
+        return delegateTimeBudget;
+    }
+
+    /**
+     * Sets how long a delegate may run before it is counted and logged as slow
+     *
+     * @param budget number of milliseconds, or zero to disable detection
+     */
+    public static void setDelegateTimeBudget(final long budget)
+    {
+        delegateTimeBudget = Math.max(0, budget);
+    }
+
+    /**
+     * Gets the number of delegate invocations across all timers that exceeded the time budget
+     *
+     * @return slow delegate count
+     */
+    public static long getTotalSlowDelegateCount()
+    {
+        return totalSlowDelegateCount.get();
+    }
+
+    /**
+     * Gets the active timer scheduler
+     *
+     * @return the scheduler
+     */
+    public static @NonNull UUTimerScheduler getScheduler()
+    {
+        return scheduler;
+    }
+
+    /**
+     * Replaces the timer scheduler.  Timers that are already scheduled stay with their current
+     * scheduler until they are next started.
+     *
+     * Use a UUTimingWheelScheduler when many timers are started, restarted and cancelled
+     * frequently, such as per connection timeouts.
+     *
+     * @param scheduler the new scheduler
+     */
+    public static void setScheduler(final @NonNull UUTimerScheduler scheduler)
+    {
+        UUTimer.scheduler = scheduler;
+    }
+
     /**
      * Finds an active timer by ID
      *
@@ -299,52 +892,78 @@ public class UUTimer
      */
     public static @Nullable UUTimer findActiveTimer(final @NonNull String timerId)
     {
-        synchronized (theActiveTimers)
-        {
-            return theActiveTimers.get(timerId);
-        }
+        return theActiveTimers.get(timerId);
     }
 
     /**
-     * Lists all active timers
+     * Lists all active timers.  The list is a weakly consistent snapshot, timers started or
+     * cancelled while it is being built may or may not be included.
      *
      * @return a list of UUTimer's
      */
     public static @NonNull ArrayList<UUTimer> listActiveTimers()
     {
-        synchronized (theActiveTimers)
+        return new ArrayList<>(theActiveTimers.values());
+    }
+
+    /**
+     * Fires a named timer.  Any active timer with the same ID is atomically replaced and
+     * cancelled, so concurrent restarts of the same ID always leave exactly one timer running.
+     *
+     * @param timerId timer ID
+     * @param timeoutMilliseconds timout in milliseconds
+     * @param userInfo optional user context
+     * @param delegate timer callback
+     */
+    public static void startTimer(
+        final @NonNull String timerId,
+        final long timeoutMilliseconds,
+        final @Nullable Object userInfo,
+        final @NonNull TimerDelegate delegate)
+    {
+        if (timeoutMilliseconds <= 0)
         {
-            ArrayList<UUTimer> copy = new ArrayList<>();
-            for (UUTimer t : theActiveTimers.values())
-            {
-                copy.add(t);
-            }
+            cancelActiveTimer(timerId);
+            return;
+        }
+
+        UUTimer t = new UUTimer(timerId, timeoutMilliseconds, false, userInfo, delegate);
+        t.active = true;
 
-            return copy;
+        UUTimer previous = addTimer(t);
+        if (previous != null && previous != t)
+        {
+            previous.cancel();
         }
+
+        t.safeStartTimer();
     }
 
     /**
-     * Fires a named timer
+     * Restarts a named one shot timer.  If a timer with the ID is already running it is updated
+     * and rescheduled in place, otherwise a new timer is started.  The new delegate and user info
+     * are published together, so a fire racing the restart sees either the old pair or the new.
      *
      * @param timerId timer ID
      * @param timeoutMilliseconds timout in milliseconds
      * @param userInfo optional user context
      * @param delegate timer callback
      */
-    public static void startTimer(
+    public static void restartTimer(
         final @NonNull String timerId,
         final long timeoutMilliseconds,
         final @Nullable Object userInfo,
         final @NonNull TimerDelegate delegate)
     {
-        cancelActiveTimer(timerId);
-
-        if (timeoutMilliseconds > 0)
+        UUTimer timer = theActiveTimers.get(timerId);
+        if (timer == null || timer.repeat || timeoutMilliseconds <= 0)
         {
-            UUTimer t = new UUTimer(timerId, timeoutMilliseconds, false, userInfo, delegate);
-            t.start();
+            startTimer(timerId, timeoutMilliseconds, userInfo, delegate);
+            return;
         }
+
+        timer.callback = new Callback(delegate, userInfo);
+        timer.restart(timeoutMilliseconds);
     }
 
     /**
@@ -354,7 +973,7 @@ public class UUTimer
      */
     public static void cancelActiveTimer(final @NonNull String timerId)
     {
-        UUTimer timer = findActiveTimer(timerId);
+        UUTimer timer = theActiveTimers.remove(timerId);
         if (timer != null)
         {
             timer.cancel();
@@ -0,0 +1,189 @@
+package com.silverpine.uu.core;
+
+import java.util.Locale;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Point in time snapshot of UUTimer scheduling behaviour.  Obtain one from
+ * {@link UUTimer#getMetrics()}.
+ */
+@SuppressWarnings("unused")
+public final class UUTimerMetrics
+{
+    private final long captureTime;
+    private final long startTime;
+    private final int activeTimerCount;
+    private final long startCount;
+    private final long cancelCount;
+    private final long fireCount;
+    private final long slowDelegateCount;
+    private final @NonNull UUHistogram lateness;
+    private final @NonNull UUHistogram delegateTime;
+
+    UUTimerMetrics(
+        final long captureTime,
+        final long startTime,
+        final int activeTimerCount,
+        final long startCount,
+        final long cancelCount,
+        final long fireCount,
+        final long slowDelegateCount,
+        @NonNull final UUHistogram lateness,
+        @NonNull final UUHistogram delegateTime)
+    {
+        this.captureTime = captureTime;
+        this.startTime = startTime;
+        this.activeTimerCount = activeTimerCount;
+        this.startCount = startCount;
+        this.cancelCount = cancelCount;
+        this.fireCount = fireCount;
+        this.slowDelegateCount = slowDelegateCount;
+        this.lateness = lateness;
+        this.delegateTime = delegateTime;
+    }
+
+    /**
+     * Gets the time this snapshot was taken
+     *
+     * @return SystemClock.uptimeMillis() at capture
+     */
+    public long getCaptureTime()
+    {
+        return captureTime;
+    }
+
+    /**
+     * Gets the number of timers in the active timer registry
+     *
+     * @return active timer count
+     */
+    public int getActiveTimerCount()
+    {
+        return activeTimerCount;
+    }
+
+    /**
+     * Gets the total number of timer starts
+     *
+     * @return start count
+     */
+    public long getStartCount()
+    {
+        return startCount;
+    }
+
+    /**
+     * Gets the total number of timers cancelled before they fired
+     *
+     * @return cancel count
+     */
+    public long getCancelCount()
+    {
+        return cancelCount;
+    }
+
+    /**
+     * Gets the total number of timer fires
+     *
+     * @return fire count
+     */
+    public long getFireCount()
+    {
+        return fireCount;
+    }
+
+    /**
+     * Gets the number of delegate invocations that exceeded the delegate time budget
+     *
+     * @return slow delegate count
+     */
+    public long getSlowDelegateCount()
+    {
+        return slowDelegateCount;
+    }
+
+    /**
+     * Gets the histogram of how late timers fired relative to their deadlines, across all timers
+     *
+     * @return lateness histogram in milliseconds
+     */
+    @NonNull
+    public UUHistogram getLateness()
+    {
+        return lateness;
+    }
+
+    /**
+     * Gets the histogram of delegate execution times, across all timers
+     *
+     * @return delegate time histogram in microseconds
+     */
+    @NonNull
+    public UUHistogram getDelegateTime()
+    {
+        return delegateTime;
+    }
+
+    /**
+     * Gets the rate timers were started
+     *
+     * @param previous an earlier snapshot to measure from, or null to measure from process start
+     * @return starts per second
+     */
+    public double getStartsPerSecond(@Nullable final UUTimerMetrics previous)
+    {
+        return rate(startCount, (previous != null ? previous.startCount : 0), previous);
+    }
+
+    /**
+     * Gets the rate timers were cancelled
+     *
+     * @param previous an earlier snapshot to measure from, or null to measure from process start
+     * @return cancels per second
+     */
+    public double getCancelsPerSecond(@Nullable final UUTimerMetrics previous)
+    {
+        return rate(cancelCount, (previous != null ? previous.cancelCount : 0), previous);
+    }
+
+    /**
+     * Gets the rate timers fired
+     *
+     * @param previous an earlier snapshot to measure from, or null to measure from process start
+     * @return fires per second
+     */
+    public double getFiresPerSecond(@Nullable final UUTimerMetrics previous)
+    {
+        return rate(fireCount, (previous != null ? previous.fireCount : 0), previous);
+    }
+
+    @NonNull
+    @Override
+    public String toString()
+    {
+        return String.format(Locale.US,
+            "active: %d, starts: %d, cancels: %d, fires: %d, slowDelegates: %d, latenessMillis: [%s], delegateMicros: [%s]",
+            activeTimerCount,
+            startCount,
+            cancelCount,
+            fireCount,
+            slowDelegateCount,
+            lateness,
+            delegateTime);
+    }
+
+    private double rate(final long count, final long fromCount, @Nullable final UUTimerMetrics previous)
+    {
+        long fromTime = (previous != null ? previous.captureTime : startTime);
+        long elapsed = captureTime - fromTime;
+
+        if (elapsed <= 0)
+        {
+            return 0;
+        }
+
+        return ((double) (count - fromCount) * 1000.0) / (double) elapsed;
+    }
+}
@@ -0,0 +1,28 @@
+package com.silverpine.uu.core;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Backend that decides when UUTimers fire.  When a timer's deadline passes, the scheduler calls
+ * back into the timer from its own thread.
+ *
+ * Implementations must be safe to call from any thread, and scheduling a timer that is already
+ * scheduled must replace its previous deadline.
+ */
+public interface UUTimerScheduler
+{
+    /**
+     * Schedules a timer to fire at a deadline
+     *
+     * @param timer the timer
+     * @param deadline SystemClock.uptimeMillis() based time to fire at
+     */
+    void schedule(@NonNull final UUTimer timer, final long deadline);
+
+    /**
+     * Cancels a scheduled timer.  Does nothing if the timer is not scheduled.
+     *
+     * @param timer the timer
+     */
+    void cancel(@NonNull final UUTimer timer);
+}
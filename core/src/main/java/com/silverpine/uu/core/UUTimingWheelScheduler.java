@@ -0,0 +1,338 @@
+package com.silverpine.uu.core;
+
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.silverpine.uu.logging.UULog;
+
+/**
+ * Hashed timing wheel scheduler for UUTimer.
+ *
+ * Deadlines are rounded up to a tick and hashed into a ring of buckets.  Timers more than one
+ * revolution away carry a round count that is decremented each time the cursor passes their
+ * bucket.  Scheduling, rescheduling and cancelling are all O(1) regardless of how many timers
+ * are active, at the cost of firing up to one tick late.
+ *
+ * The wheel only ticks while it holds timers, so an idle wheel causes no wakeups.
+ */
+@SuppressWarnings("unused")
+public class UUTimingWheelScheduler implements UUTimerScheduler
+{
+    public static final long DEFAULT_TICK_MILLIS = 10;
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final @NonNull UUExecutor executor;
+    private final long tickMillis;
+    private final @NonNull Node[] buckets;
+    private final @NonNull Object lock = new Object();
+
+    private final long startTime;
+    private long currentTick = 0;
+    private int count = 0;
+    private boolean ticking = false;
+    private long sequence = 0;
+
+    private final @NonNull Runnable tickRunnable = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            tick();
+        }
+    };
+
+    /**
+     * Wheel entry.  One is created per timer the first time it is scheduled and reused after that.
+     */
+    private static final class Node
+    {
+        private final @NonNull UUTimer timer;
+        private Node prev;
+        private Node next;
+        private int bucket = -1;
+        private long rounds;
+
+        // Bumped on every schedule and cancel, so a tick can tell if the timer changed after it
+        // was collected
+        private long sequence;
+        private long expiredSequence;
+
+        private Node(@NonNull final UUTimer timer)
+        {
+            this.timer = timer;
+        }
+    }
+
+    /**
+     * Creates a wheel that ticks on the UUTimer executor
+     *
+     * @param tickMillis tick resolution in milliseconds.  Timers fire up to one tick late.
+     * @param wheelSize number of buckets.  Deadlines up to tickMillis * wheelSize away need no
+     *                  round counting.
+     */
+    public UUTimingWheelScheduler(final long tickMillis, final int wheelSize)
+    {
+        this(UUTimer.getExecutor(), tickMillis, wheelSize);
+    }
+
+    /**
+     * Creates a wheel
+     *
+     * @param executor the executor the wheel ticks and fires timers on
+     * @param tickMillis tick resolution in milliseconds.  Timers fire up to one tick late.
+     * @param wheelSize number of buckets
+     */
+    public UUTimingWheelScheduler(@NonNull final UUExecutor executor, final long tickMillis, final int wheelSize)
+    {
+        this.executor = executor;
+        this.tickMillis = Math.max(1, tickMillis);
+        this.buckets = new Node[Math.max(1, wheelSize)];
+        this.startTime = SystemClock.uptimeMillis();
+    }
+
+    /**
+     * Gets the tick resolution
+     *
+     * @return milliseconds per tick
+     */
+    public long getTickMillis()
+    {
+        return tickMillis;
+    }
+
+    /**
+     * Gets the number of timers in the wheel
+     *
+     * @return scheduled timer count
+     */
+    public int getScheduledCount()
+    {
+        synchronized (lock)
+        {
+            return count;
+        }
+    }
+
+    @Override
+    public void schedule(@NonNull final UUTimer timer, final long deadline)
+    {
+        boolean startTicking = false;
+
+        synchronized (lock)
+        {
+            Node node = nodeFor(timer);
+            unlink(node);
+
+            if (!ticking)
+            {
+                // Buckets are empty while idle, so skipping ahead to now is safe
+                currentTick = Math.max(currentTick, tickFor(SystemClock.uptimeMillis()));
+            }
+
+            long targetTick = Math.max(currentTick + 1, ceilTickFor(deadline));
+            long distance = targetTick - (currentTick + 1);
+
+            node.bucket = (int) (targetTick % buckets.length);
+            node.rounds = distance / buckets.length;
+            node.sequence = ++sequence;
+            link(node);
+
+            if (!ticking)
+            {
+                ticking = true;
+                startTicking = true;
+            }
+        }
+
+        if (startTicking)
+        {
+            postNextTick();
+        }
+    }
+
+    @Override
+    public void cancel(@NonNull final UUTimer timer)
+    {
+        synchronized (lock)
+        {
+            Object token = timer.schedulerToken;
+            if (token instanceof Node)
+            {
+                Node node = (Node) token;
+                node.sequence = ++sequence;
+                unlink(node);
+            }
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private Methods
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void tick()
+    {
+        boolean keepTicking;
+
+        // Collected into a list owned by this tick, since a schedule after ticking is cleared
+        // can post another tick that runs concurrently on a multi threaded executor
+        ArrayList<Node> expired = null;
+
+        synchronized (lock)
+        {
+            long nowTick = tickFor(SystemClock.uptimeMillis());
+
+            while (currentTick < nowTick)
+            {
+                currentTick++;
+                expired = collectExpired((int) (currentTick % buckets.length), expired);
+            }
+
+            keepTicking = (count > 0);
+            ticking = keepTicking;
+        }
+
+        int expiredCount = (expired != null ? expired.size() : 0);
+        for (int i = 0; i < expiredCount; i++)
+        {
+            Node node = expired.get(i);
+
+            synchronized (lock)
+            {
+                // Rescheduled or cancelled since it was collected
+                if (node.sequence != node.expiredSequence)
+                {
+                    continue;
+                }
+            }
+
+            try
+            {
+                node.timer.onSchedulerFired();
+            }
+            catch (Exception ex)
+            {
+                UULog.debug(UUTimingWheelScheduler.class, "tick", ex);
+            }
+        }
+
+        if (keepTicking)
+        {
+            postNextTick();
+        }
+    }
+
+    @Nullable
+    private ArrayList<Node> collectExpired(final int bucket, @Nullable final ArrayList<Node> expired)
+    {
+        ArrayList<Node> list = expired;
+        Node node = buckets[bucket];
+        while (node != null)
+        {
+            Node next = node.next;
+
+            if (node.rounds <= 0)
+            {
+                unlink(node);
+                node.expiredSequence = node.sequence;
+
+                if (list == null)
+                {
+                    list = new ArrayList<>();
+                }
+
+                list.add(node);
+            }
+            else
+            {
+                node.rounds--;
+            }
+
+            node = next;
+        }
+
+        return list;
+    }
+
+    private void postNextTick()
+    {
+        long nextTickTime;
+
+        synchronized (lock)
+        {
+            nextTickTime = startTime + ((currentTick + 1) * tickMillis);
+        }
+
+        executor.postDelayed(tickRunnable, Math.max(0, nextTickTime - SystemClock.uptimeMillis()));
+    }
+
+    @NonNull
+    private Node nodeFor(@NonNull final UUTimer timer)
+    {
+        Object token = timer.schedulerToken;
+        if (token instanceof Node && ((Node) token).timer == timer)
+        {
+            return (Node) token;
+        }
+
+        Node node = new Node(timer);
+        timer.schedulerToken = node;
+        return node;
+    }
+
+    private void link(@NonNull final Node node)
+    {
+        Node head = buckets[node.bucket];
+        node.prev = null;
+        node.next = head;
+
+        if (head != null)
+        {
+            head.prev = node;
+        }
+
+        buckets[node.bucket] = node;
+        count++;
+    }
+
+    private void unlink(@NonNull final Node node)
+    {
+        if (node.bucket < 0)
+        {
+            return;
+        }
+
+        if (node.prev != null)
+        {
+            node.prev.next = node.next;
+        }
+        else
+        {
+            buckets[node.bucket] = node.next;
+        }
+
+        if (node.next != null)
+        {
+            node.next.prev = node.prev;
+        }
+
+        node.prev = null;
+        node.next = null;
+        node.bucket = -1;
+        count--;
+    }
+
+    private long tickFor(final long time)
+    {
+        return Math.max(0, (time - startTime) / tickMillis);
+    }
+
+    private long ceilTickFor(final long time)
+    {
+        long elapsed = Math.max(0, time - startTime);
+        return (elapsed + tickMillis - 1) / tickMillis;
+    }
+}
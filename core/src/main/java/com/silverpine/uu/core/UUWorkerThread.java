@@ -3,57 +3,668 @@ package com.silverpine.uu.core;
 import android.os.Handler;
 import android.os.HandlerThread;
 import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import android.util.Log;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A named looper thread that work can be posted to.
+ *
+ * The thread is not started until the first post, or until start or getLooper is called.  With
+ * an idle timeout set, the thread quits after it has had nothing queued for that long.  Like any
+ * thread it cannot be started again once it has quit, posts made after that are dropped.
+ * UULooperExecutor replaces its worker thread when that happens, so use an executor for work
+ * that should survive idle periods.
+ */
 public class UUWorkerThread extends HandlerThread
 {
     private static String LOG_TAG = UUWorkerThread.class.getName();
 
-    private Handler handler;
+    public static final long DEFAULT_SLOW_TASK_THRESHOLD = 100;
+    private static final int TASK_POOL_SIZE = 32;
+
+    private @Nullable Handler handler = null;
+    private boolean quit = false;
+    private volatile long idleTimeout = 0;
+    private boolean idleCheckPosted = false;
+    private long idleSince = 0;
+
+    private final @NonNull Object taskLock = new Object();
+    private final @NonNull IdentityHashMap<Runnable, ArrayList<Task>> pendingTasks = new IdentityHashMap<>();
+    private final @NonNull ArrayDeque<Task> taskPool = new ArrayDeque<>();
+
+    private final @NonNull AtomicInteger queuedCount = new AtomicInteger();
+    private final @NonNull AtomicLong executedCount = new AtomicLong();
+    private final @NonNull AtomicLong slowTaskCount = new AtomicLong();
+    private final @NonNull UUHistogram queueWait = new UUHistogram();
+    private final @NonNull UUHistogram executionTime = new UUHistogram();
+    private volatile long slowTaskThreshold = DEFAULT_SLOW_TASK_THRESHOLD;
+
+    private static final @NonNull ArrayList<WeakReference<UUWorkerThread>> allThreads = new ArrayList<>();
+
+    private final @NonNull Runnable idleCheckRunnable = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            checkIdle();
+        }
+    };
+
+    /**
+     * Wraps a posted runnable to time it.  Posted with the original runnable as the message token
+     * so every post of a runnable can be removed at once.
+     */
+    private final class Task implements Runnable
+    {
+        private @Nullable Runnable runnable;
+        private long dueNanos;
+        private boolean removed;
+
+        @Override
+        public void run()
+        {
+            Runnable target;
+            long due;
+
+            synchronized (taskLock)
+            {
+                target = runnable;
+                if (removed || target == null)
+                {
+                    return;
+                }
+
+                due = dueNanos;
+                untrack(this);
+            }
+
+            queuedCount.decrementAndGet();
+
+            long start = System.nanoTime();
+            queueWait.record(Math.max(0, start - due) / 1000L);
+
+            try
+            {
+                target.run();
+            }
+            finally
+            {
+                long micros = (System.nanoTime() - start) / 1000L;
+                executionTime.record(micros);
+                executedCount.incrementAndGet();
+
+                long threshold = slowTaskThreshold;
+                if (threshold > 0 && micros > threshold * 1000L)
+                {
+                    slowTaskCount.incrementAndGet();
+                    Log.w(LOG_TAG, getName() + ": slow task " + target.getClass().getName() + " took " + (micros / 1000L) + "ms");
+                }
+
+                recycle(this);
+
+                if (queuedCount.get() == 0)
+                {
+                    onQueueEmpty();
+                }
+            }
+        }
+    }
 
     public UUWorkerThread(@NonNull final String name)
     {
-        super(name);
-        start();
+        this(name, Process.THREAD_PRIORITY_DEFAULT);
+    }
+
+    /**
+     * Creates a worker thread.  The thread is started on the first post.
+     *
+     * @param name the thread name
+     * @param priority an android.os.Process thread priority
+     */
+    public UUWorkerThread(@NonNull final String name, final int priority)
+    {
+        super(name, priority);
 
-        Looper looper = getLooper();
-        handler = new Handler(looper);
+        synchronized (allThreads)
+        {
+            allThreads.add(new WeakReference<>(this));
+        }
     }
 
     public void post(final Runnable runnable)
     {
-        if (handler != null)
+        enqueue(runnable, 0);
+    }
+
+    public void postDelayed(final Runnable runnable, final long delay)
+    {
+        enqueue(runnable, delay);
+    }
+
+    /**
+     * Posts a runnable that is removed from the queue if the token is cancelled before it runs
+     *
+     * @param token the cancellation token
+     * @param runnable the runnable
+     */
+    public void post(@NonNull final UUCancellationToken token, @NonNull final Runnable runnable)
+    {
+        Runnable bound = token.bind(runnable, this::removeRunnable);
+        if (bound != null && !enqueue(bound, 0))
         {
-            handler.post(runnable);
+            token.unbind(bound);
         }
-        else
+    }
+
+    /**
+     * Posts a delayed runnable that is removed from the queue if the token is cancelled before it
+     * runs
+     *
+     * @param token the cancellation token
+     * @param runnable the runnable
+     * @param delay delay in milliseconds
+     */
+    public void postDelayed(@NonNull final UUCancellationToken token, @NonNull final Runnable runnable, final long delay)
+    {
+        Runnable bound = token.bind(runnable, this::removeRunnable);
+        if (bound != null && !enqueue(bound, delay))
         {
-            Log.d(LOG_TAG, "Handler is null! unable to post!");
+            token.unbind(bound);
         }
     }
 
-    public void postDelayed(final Runnable runnable, final long delay)
+    public void removeRunnable(final Runnable runnable)
     {
-        if (handler != null)
+        Handler h;
+        int removedCount = 0;
+
+        synchronized (taskLock)
         {
-            handler.postDelayed(runnable, delay);
+            h = handler;
+
+            ArrayList<Task> tasks = pendingTasks.remove(runnable);
+            if (tasks != null)
+            {
+                for (Task task : tasks)
+                {
+                    task.removed = true;
+                }
+
+                removedCount = tasks.size();
+            }
         }
-        else
+
+        if (removedCount > 0)
         {
-            Log.d(LOG_TAG, "Handler is null! unable to post!");
+            if (h != null)
+            {
+                h.removeCallbacksAndMessages(runnable);
+            }
+
+            if (queuedCount.addAndGet(-removedCount) == 0)
+            {
+                onQueueEmpty();
+            }
         }
     }
 
-    public void removeRunnable(final Runnable runnable)
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Lifecycle
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Starts the thread now instead of on the first post.  Does nothing if the thread is already
+     * running or has quit.
+     */
+    @Override
+    public void start()
+    {
+        synchronized (taskLock)
+        {
+            ensureStarted();
+        }
+    }
+
+    /**
+     * Checks if the thread is currently running
+     *
+     * @return true if started and not quit
+     */
+    public boolean isStarted()
+    {
+        synchronized (taskLock)
+        {
+            return (handler != null && !quit);
+        }
+    }
+
+    /**
+     * Checks if the thread has quit, either explicitly or after its idle timeout.  A thread that
+     * has quit drops any further posts.
+     *
+     * @return true if quit
+     */
+    public boolean isQuit()
+    {
+        synchronized (taskLock)
+        {
+            return quit;
+        }
+    }
+
+    /**
+     * Checks if the calling thread is this worker thread
+     *
+     * @return true if called from this worker thread
+     */
+    public boolean isCurrentThread()
+    {
+        return (Thread.currentThread() == this);
+    }
+
+    /**
+     * Gets the looper, starting the thread if needed
+     *
+     * @return the looper, or null if the thread has quit
+     */
+    @Override
+    public Looper getLooper()
+    {
+        synchronized (taskLock)
+        {
+            ensureStarted();
+        }
+
+        return super.getLooper();
+    }
+
+    /**
+     * Gets the idle timeout
+     *
+     * @return number of milliseconds the thread stays alive with nothing queued, or zero if it
+     *         never quits on its own
+     */
+    public long getIdleTimeout()
+    {
+        return idleTimeout;
+    }
+
+    /**
+     * Sets how long the thread stays alive with nothing queued before it quits
+     *
+     * @param idleTimeout number of milliseconds, or zero to keep the thread alive until quit
+     */
+    public void setIdleTimeout(final long idleTimeout)
+    {
+        this.idleTimeout = Math.max(0, idleTimeout);
+
+        if (queuedCount.get() == 0)
+        {
+            onQueueEmpty();
+        }
+    }
+
+    /**
+     * Stops the thread immediately.  Queued runnables that have not started are dropped.
+     *
+     * @return false if the thread was never started
+     */
+    @Override
+    public boolean quit()
+    {
+        synchronized (taskLock)
+        {
+            stopLocked();
+        }
+
+        return super.quit();
+    }
+
+    /**
+     * Stops the thread once every runnable that is already due has run.  Delayed runnables that
+     * are not yet due are dropped.
+     *
+     * @return false if the thread was never started
+     */
+    @Override
+    public boolean quitSafely()
+    {
+        synchronized (taskLock)
+        {
+            if (handler == null)
+            {
+                stopLocked();
+                return false;
+            }
+
+            // Due runnables still run, anything left is dropped when the looper exits
+            quit = true;
+        }
+
+        return super.quitSafely();
+    }
+
+    @Override
+    public void run()
+    {
+        try
+        {
+            super.run();
+        }
+        finally
+        {
+            synchronized (taskLock)
+            {
+                stopLocked();
+            }
+        }
+    }
+
+    /**
+     * Blocks until every runnable that is already due has run
+     *
+     * @param timeoutMillis maximum time to wait
+     * @return true if the queue drained in time, false on timeout or interrupt
+     */
+    public boolean drain(final long timeoutMillis)
+    {
+        if (isCurrentThread())
+        {
+            return false;
+        }
+
+        final Handler h;
+
+        synchronized (taskLock)
+        {
+            h = handler;
+        }
+
+        if (h == null)
+        {
+            return true;
+        }
+
+        CountDownLatch latch = new CountDownLatch(1);
+        h.post(latch::countDown);
+
+        try
+        {
+            return latch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Instrumentation
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Gets the number of posted runnables that have not started yet, including delayed ones
+     *
+     * @return queued count
+     */
+    public int getQueuedCount()
+    {
+        return queuedCount.get();
+    }
+
+    /**
+     * Gets the slow task threshold
+     *
+     * @return number of milliseconds a runnable may run before it is reported as slow
+     */
+    public long getSlowTaskThreshold()
+    {
+        return slowTaskThreshold;
+    }
+
+    /**
+     * Sets how long a runnable may run before it is counted and logged as slow
+     *
+     * @param threshold number of milliseconds, or zero to disable detection
+     */
+    public void setSlowTaskThreshold(final long threshold)
+    {
+        slowTaskThreshold = Math.max(0, threshold);
+    }
+
+    /**
+     * Gets a snapshot of this thread's queue metrics
+     *
+     * @return a metrics snapshot
+     */
+    @NonNull
+    public UUWorkerThreadMetrics getMetrics()
+    {
+        return new UUWorkerThreadMetrics(
+            getName(),
+            queuedCount.get(),
+            executedCount.get(),
+            slowTaskCount.get(),
+            queueWait.copy(),
+            executionTime.copy());
+    }
+
+    /**
+     * Gets metrics snapshots for every worker thread in the process
+     *
+     * @return a list of snapshots
+     */
+    @NonNull
+    public static ArrayList<UUWorkerThreadMetrics> getAllMetrics()
+    {
+        ArrayList<UUWorkerThread> threads = new ArrayList<>();
+
+        synchronized (allThreads)
+        {
+            Iterator<WeakReference<UUWorkerThread>> it = allThreads.iterator();
+            while (it.hasNext())
+            {
+                UUWorkerThread thread = it.next().get();
+                if (thread == null)
+                {
+                    it.remove();
+                }
+                else
+                {
+                    threads.add(thread);
+                }
+            }
+        }
+
+        ArrayList<UUWorkerThreadMetrics> list = new ArrayList<>(threads.size());
+        for (UUWorkerThread thread : threads)
+        {
+            list.add(thread.getMetrics());
+        }
+
+        return list;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private Methods
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void ensureStarted()
+    {
+        if (handler == null && !quit)
+        {
+            if (getState() == State.NEW)
+            {
+                super.start();
+            }
+
+            Looper looper = super.getLooper();
+            if (looper == null)
+            {
+                quit = true;
+                return;
+            }
+
+            handler = new Handler(looper);
+            idleCheckPosted = false;
+        }
+    }
+
+    private void stopLocked()
+    {
+        quit = true;
+        handler = null;
+        idleCheckPosted = false;
+
+        int dropped = 0;
+        for (Map.Entry<Runnable, ArrayList<Task>> entry : pendingTasks.entrySet())
+        {
+            for (Task task : entry.getValue())
+            {
+                task.removed = true;
+            }
+
+            dropped += entry.getValue().size();
+            UUCancellationToken.discard(entry.getKey());
+        }
+
+        pendingTasks.clear();
+        queuedCount.addAndGet(-dropped);
+    }
+
+    /**
+     * Queues a runnable
+     *
+     * @return false if the thread has quit and the runnable was dropped
+     */
+    boolean enqueue(@NonNull final Runnable runnable, final long delay)
+    {
+        long delayMillis = Math.max(0, delay);
+
+        synchronized (taskLock)
+        {
+            ensureStarted();
+
+            if (handler == null || quit)
+            {
+                Log.d(LOG_TAG, getName() + ": unable to post, thread has quit");
+                return false;
+            }
+
+            Task task = taskPool.poll();
+            if (task == null)
+            {
+                task = new Task();
+            }
+
+            task.runnable = runnable;
+            task.removed = false;
+            task.dueNanos = System.nanoTime() + (delayMillis * 1000000L);
+
+            ArrayList<Task> tasks = pendingTasks.get(runnable);
+            if (tasks == null)
+            {
+                tasks = new ArrayList<>(1);
+                pendingTasks.put(runnable, tasks);
+            }
+
+            tasks.add(task);
+            queuedCount.incrementAndGet();
+
+            // postAtTime with a token is the pre API 28 way of tagging a delayed post
+            if (!handler.postAtTime(task, runnable, SystemClock.uptimeMillis() + delayMillis))
+            {
+                Log.d(LOG_TAG, getName() + ": unable to post, looper is exiting");
+            }
+
+            return true;
+        }
+    }
+
+    private void untrack(@NonNull final Task task)
+    {
+        ArrayList<Task> tasks = pendingTasks.get(task.runnable);
+        if (tasks != null)
+        {
+            tasks.remove(task);
+            if (tasks.isEmpty())
+            {
+                pendingTasks.remove(task.runnable);
+            }
+        }
+    }
+
+    private void recycle(@NonNull final Task task)
+    {
+        synchronized (taskLock)
+        {
+            task.runnable = null;
+
+            if (taskPool.size() < TASK_POOL_SIZE)
+            {
+                taskPool.offer(task);
+            }
+        }
+    }
+
+    private void onQueueEmpty()
     {
-        if (handler != null)
+        long timeout = idleTimeout;
+        if (timeout <= 0)
+        {
+            return;
+        }
+
+        synchronized (taskLock)
         {
-            handler.removeCallbacks(runnable);
+            idleSince = SystemClock.uptimeMillis();
+
+            if (handler != null && !idleCheckPosted)
+            {
+                idleCheckPosted = true;
+                handler.postDelayed(idleCheckRunnable, timeout);
+            }
         }
-        else
+    }
+
+    private void checkIdle()
+    {
+        synchronized (taskLock)
         {
-            Log.d(LOG_TAG, "Handler is null! unable to remove runnable!");
+            idleCheckPosted = false;
+
+            long timeout = idleTimeout;
+            if (timeout <= 0 || queuedCount.get() > 0 || handler == null)
+            {
+                return;
+            }
+
+            long remaining = (idleSince + timeout) - SystemClock.uptimeMillis();
+            if (remaining > 0)
+            {
+                idleCheckPosted = true;
+                handler.postDelayed(idleCheckRunnable, remaining);
+                return;
+            }
+
+            stopLocked();
         }
+
+        super.quitSafely();
     }
 }
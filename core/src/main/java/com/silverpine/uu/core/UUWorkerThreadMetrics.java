@@ -0,0 +1,113 @@
+package com.silverpine.uu.core;
+
+import java.util.Locale;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Point in time snapshot of a UUWorkerThread queue.  Obtain one from
+ * {@link UUWorkerThread#getMetrics()} or {@link UUWorkerThread#getAllMetrics()}.
+ */
+@SuppressWarnings("unused")
+public final class UUWorkerThreadMetrics
+{
+    private final @NonNull String name;
+    private final int queuedCount;
+    private final long executedCount;
+    private final long slowTaskCount;
+    private final @NonNull UUHistogram queueWait;
+    private final @NonNull UUHistogram executionTime;
+
+    UUWorkerThreadMetrics(
+        @NonNull final String name,
+        final int queuedCount,
+        final long executedCount,
+        final long slowTaskCount,
+        @NonNull final UUHistogram queueWait,
+        @NonNull final UUHistogram executionTime)
+    {
+        this.name = name;
+        this.queuedCount = queuedCount;
+        this.executedCount = executedCount;
+        this.slowTaskCount = slowTaskCount;
+        this.queueWait = queueWait;
+        this.executionTime = executionTime;
+    }
+
+    /**
+     * Gets the worker thread name
+     *
+     * @return the name
+     */
+    @NonNull
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Gets the number of posted runnables that have not started yet, including delayed ones
+     *
+     * @return queued count
+     */
+    public int getQueuedCount()
+    {
+        return queuedCount;
+    }
+
+    /**
+     * Gets the number of runnables that have run
+     *
+     * @return executed count
+     */
+    public long getExecutedCount()
+    {
+        return executedCount;
+    }
+
+    /**
+     * Gets the number of runnables that ran longer than the slow task threshold
+     *
+     * @return slow task count
+     */
+    public long getSlowTaskCount()
+    {
+        return slowTaskCount;
+    }
+
+    /**
+     * Gets the histogram of time between a runnable being due and it starting
+     *
+     * @return queue wait histogram in microseconds
+     */
+    @NonNull
+    public UUHistogram getQueueWait()
+    {
+        return queueWait;
+    }
+
+    /**
+     * Gets the histogram of runnable execution times
+     *
+     * @return execution time histogram in microseconds
+     */
+    @NonNull
+    public UUHistogram getExecutionTime()
+    {
+        return executionTime;
+    }
+
+    @NonNull
+    @Override
+    public String toString()
+    {
+        return String.format(Locale.US,
+            "name: %s, queued: %d, executed: %d, slow: %d, waitMicros: [%s], executionMicros: [%s]",
+            name,
+            queuedCount,
+            executedCount,
+            slowTaskCount,
+            queueWait,
+            executionTime);
+    }
+}
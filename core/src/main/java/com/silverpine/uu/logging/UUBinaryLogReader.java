@@ -0,0 +1,320 @@
+package com.silverpine.uu.logging;
+
+import android.util.Log;
+
+import com.silverpine.uu.core.UUData;
+import com.silverpine.uu.core.UUString;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import androidx.annotation.NonNull;
+
+import static com.silverpine.uu.logging.UUBinaryLogWriter.BYTE_ORDER;
+import static com.silverpine.uu.logging.UUBinaryLogWriter.EXCEPTION_KEY;
+import static com.silverpine.uu.logging.UUBinaryLogWriter.INLINE_ID;
+import static com.silverpine.uu.logging.UUBinaryLogWriter.MESSAGE_KEY;
+import static com.silverpine.uu.logging.UUBinaryLogWriter.RECORD_TYPE_DEFINE;
+import static com.silverpine.uu.logging.UUBinaryLogWriter.RECORD_TYPE_LOG;
+import static com.silverpine.uu.logging.UUBinaryLogWriter.VALUE_TYPE_BOOLEAN;
+import static com.silverpine.uu.logging.UUBinaryLogWriter.VALUE_TYPE_BYTES;
+import static com.silverpine.uu.logging.UUBinaryLogWriter.VALUE_TYPE_DOUBLE;
+import static com.silverpine.uu.logging.UUBinaryLogWriter.VALUE_TYPE_LONG;
+import static com.silverpine.uu.logging.UUBinaryLogWriter.VALUE_TYPE_NULL;
+import static com.silverpine.uu.logging.UUBinaryLogWriter.VALUE_TYPE_STRING;
+
+/**
+ * Decodes a stream written by {@link UUBinaryLogWriter} back into text lines.
+ *
+ * The reader keeps its own copy of the tag dictionary, so a single reader must be fed the whole
+ * stream in order.  Data may be appended in arbitrary chunks; a record split across two chunks is
+ * decoded once the rest of it arrives.
+ */
+@SuppressWarnings("unused")
+public class UUBinaryLogReader
+{
+    private final @NonNull ArrayList<String> dictionary = new ArrayList<>();
+
+    private @NonNull byte[] pending = new byte[0];
+    private int position = 0;
+
+    /**
+     * Appends a chunk of the binary stream and decodes every complete record in it.
+     *
+     * @param data the chunk
+     * @param offset offset into data
+     * @param count number of bytes to use
+     * @return decoded text lines, one per log record
+     */
+    @NonNull
+    public ArrayList<String> append(@NonNull final byte[] data, final int offset, final int count)
+    {
+        int remaining = pending.length - position;
+        byte[] combined = new byte[remaining + count];
+        System.arraycopy(pending, position, combined, 0, remaining);
+        System.arraycopy(data, offset, combined, remaining, count);
+        pending = combined;
+        position = 0;
+
+        ArrayList<String> lines = new ArrayList<>();
+
+        while (position < pending.length)
+        {
+            int start = position;
+
+            try
+            {
+                String line = readRecord();
+                if (line != null)
+                {
+                    lines.add(line);
+                }
+            }
+            catch (IndexOutOfBoundsException ex)
+            {
+                // Partial record, wait for more data
+                position = start;
+                break;
+            }
+        }
+
+        return lines;
+    }
+
+    /**
+     * Decodes a complete binary log stream
+     *
+     * @param data the stream bytes
+     * @return decoded text lines, one per log record
+     */
+    @NonNull
+    public static ArrayList<String> decode(@NonNull final byte[] data)
+    {
+        return new UUBinaryLogReader().append(data, 0, data.length);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private Methods
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private String readRecord()
+    {
+        int type = readUInt8();
+
+        switch (type)
+        {
+            case RECORD_TYPE_DEFINE:
+            {
+                int id = readUInt16();
+                String value = readString();
+
+                while (dictionary.size() <= id)
+                {
+                    dictionary.add(null);
+                }
+
+                dictionary.set(id, value);
+                return null;
+            }
+
+            case RECORD_TYPE_LOG:
+            {
+                return readLogRecord();
+            }
+
+            default:
+            {
+                throw new IllegalStateException("Unknown record type: " + type);
+            }
+        }
+    }
+
+    @NonNull
+    private String readLogRecord()
+    {
+        long timestamp = UUData.readInt64(BYTE_ORDER, pending, position);
+        position += Long.BYTES;
+
+        int level = readUInt8();
+        String tag = readId();
+        String method = readId();
+        int fieldCount = readUInt8();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(timestamp);
+        sb.append(" ");
+        sb.append(levelToString(level));
+        sb.append("/");
+        sb.append(tag);
+        sb.append(": ");
+        sb.append(method);
+
+        String message = null;
+        String exception = null;
+        int written = 0;
+
+        for (int i = 0; i < fieldCount; i++)
+        {
+            String key = readId();
+            String value = readValue();
+
+            if (MESSAGE_KEY.equals(key))
+            {
+                message = value;
+                continue;
+            }
+
+            if (EXCEPTION_KEY.equals(key))
+            {
+                exception = value;
+                continue;
+            }
+
+            sb.append(written == 0 ? ": " : ", ");
+            sb.append(key);
+            sb.append("=");
+            sb.append(value);
+            written++;
+        }
+
+        if (message != null)
+        {
+            sb.append(written == 0 ? ": " : ", ");
+            sb.append(message);
+        }
+
+        if (exception != null)
+        {
+            sb.append(", Exception: ");
+            sb.append(exception);
+        }
+
+        return sb.toString();
+    }
+
+    @NonNull
+    private String readValue()
+    {
+        int type = readUInt8();
+
+        switch (type)
+        {
+            case VALUE_TYPE_NULL:
+                return "null";
+
+            case VALUE_TYPE_BOOLEAN:
+                return String.valueOf(readUInt8() != 0);
+
+            case VALUE_TYPE_LONG:
+            {
+                long val = UUData.readInt64(BYTE_ORDER, pending, position);
+                position += Long.BYTES;
+                return String.valueOf(val);
+            }
+
+            case VALUE_TYPE_DOUBLE:
+            {
+                long bits = UUData.readInt64(BYTE_ORDER, pending, position);
+                position += Long.BYTES;
+                return String.valueOf(Double.longBitsToDouble(bits));
+            }
+
+            case VALUE_TYPE_STRING:
+                return readString();
+
+            case VALUE_TYPE_BYTES:
+            {
+                long count = UUData.readUInt32(BYTE_ORDER, pending, position);
+                position += Integer.BYTES;
+                if (position + count > pending.length)
+                {
+                    throw new IndexOutOfBoundsException("Partial byte value");
+                }
+
+                String hex = UUString.byteToHex(pending, position, (int) count);
+                position += (int) count;
+                return hex;
+            }
+
+            default:
+                throw new IllegalStateException("Unknown value type: " + type);
+        }
+    }
+
+    @NonNull
+    private String readId()
+    {
+        int id = readUInt16();
+        if (id == INLINE_ID)
+        {
+            return readString();
+        }
+
+        if (id < dictionary.size())
+        {
+            String value = dictionary.get(id);
+            if (value != null)
+            {
+                return value;
+            }
+        }
+
+        return "#" + id;
+    }
+
+    @NonNull
+    private String readString()
+    {
+        int count = readUInt16();
+        if (position + count > pending.length)
+        {
+            throw new IndexOutOfBoundsException("Partial string");
+        }
+
+        String value = new String(pending, position, count, StandardCharsets.UTF_8);
+        position += count;
+        return value;
+    }
+
+    private int readUInt8()
+    {
+        int val = UUData.readUInt8(pending, position);
+        position += Byte.BYTES;
+        return val;
+    }
+
+    private int readUInt16()
+    {
+        int val = UUData.readUInt16(BYTE_ORDER, pending, position);
+        position += Short.BYTES;
+        return val;
+    }
+
+    @NonNull
+    private static String levelToString(final int level)
+    {
+        switch (level)
+        {
+            case Log.VERBOSE:
+                return "V";
+
+            case Log.DEBUG:
+                return "D";
+
+            case Log.INFO:
+                return "I";
+
+            case Log.WARN:
+                return "W";
+
+            case Log.ERROR:
+                return "E";
+
+            case Log.ASSERT:
+                return "A";
+
+            default:
+                return String.valueOf(level);
+        }
+    }
+}
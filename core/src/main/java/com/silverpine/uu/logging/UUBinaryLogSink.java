@@ -0,0 +1,108 @@
+package com.silverpine.uu.logging;
+
+import android.util.Log;
+
+import java.io.OutputStream;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+
+/**
+ * UULog sink that encodes records with {@link UUBinaryLogWriter} and writes them to a stream.
+ *
+ * A batch is encoded into the writer's shared buffer and written to the stream with a single
+ * write and flush.
+ */
+public class UUBinaryLogSink implements UULogSink
+{
+    private static final String LOG_TAG = "UULog";
+
+    private final @NonNull OutputStream stream;
+    private final @NonNull UUBinaryLogWriter writer = new UUBinaryLogWriter();
+
+    public UUBinaryLogSink(@NonNull final OutputStream stream)
+    {
+        this.stream = stream;
+    }
+
+    @Override
+    public void write(@NonNull final UULogRecord record)
+    {
+        encode(record);
+        flush();
+    }
+
+    @Override
+    public void writeBatch(@NonNull final List<UULogRecord> records)
+    {
+        for (UULogRecord record : records)
+        {
+            encode(record);
+        }
+
+        flush();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private Methods
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void encode(@NonNull final UULogRecord record)
+    {
+        try
+        {
+            Object[] fields = record.getFields();
+            String message = record.getMessage();
+            Throwable exception = record.getException();
+
+            if (message != null || exception != null)
+            {
+                int count = (fields != null ? fields.length & ~1 : 0);
+                int extra = (message != null ? 2 : 0) + (exception != null ? 2 : 0);
+                Object[] combined = new Object[count + extra];
+                int index = count;
+
+                if (fields != null)
+                {
+                    System.arraycopy(fields, 0, combined, 0, count);
+                }
+
+                if (message != null)
+                {
+                    combined[index++] = UUBinaryLogWriter.MESSAGE_KEY;
+                    combined[index++] = message;
+                }
+
+                if (exception != null)
+                {
+                    combined[index++] = UUBinaryLogWriter.EXCEPTION_KEY;
+                    combined[index] = record.getExceptionText();
+                }
+
+                fields = combined;
+            }
+
+            writer.writeRecord(record.getTimestamp(), record.getLevel(), record.getTag(), record.getMethod(), fields);
+        }
+        catch (Exception ex)
+        {
+            Log.e(LOG_TAG, "Error encoding structured log record", ex);
+        }
+    }
+
+    private void flush()
+    {
+        try
+        {
+            int length = writer.getLength();
+            writer.writeTo(stream);
+            stream.flush();
+            UULog.recordBytesWritten(this, length);
+        }
+        catch (Exception ex)
+        {
+            writer.clear();
+            Log.e(LOG_TAG, "Error writing to structured log", ex);
+        }
+    }
+}
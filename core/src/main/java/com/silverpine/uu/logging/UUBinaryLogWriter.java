@@ -0,0 +1,329 @@
+package com.silverpine.uu.logging;
+
+import com.silverpine.uu.core.UUData;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Encodes log records into a compact binary stream.
+ *
+ * Tags, method names and field keys are written to the stream once as dictionary entries and
+ * referenced by a 16 bit id from then on.  Field values are written in a typed binary form, so
+ * no text formatting happens when a record is encoded.  Use {@link UUBinaryLogReader} to turn
+ * the stream back into text.
+ *
+ * This class is not thread safe.  UULog drives it from its worker thread.
+ */
+@SuppressWarnings("unused")
+public class UUBinaryLogWriter
+{
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    static final int RECORD_TYPE_DEFINE = 1;
+    static final int RECORD_TYPE_LOG = 2;
+
+    static final int VALUE_TYPE_NULL = 0;
+    static final int VALUE_TYPE_BOOLEAN = 1;
+    static final int VALUE_TYPE_LONG = 2;
+    static final int VALUE_TYPE_DOUBLE = 3;
+    static final int VALUE_TYPE_STRING = 4;
+    static final int VALUE_TYPE_BYTES = 5;
+
+    /**
+     * Id used when the dictionary is full and a string has to be written inline
+     */
+    static final int INLINE_ID = 0xFFFF;
+
+    static final int MAX_DICTIONARY_SIZE = INLINE_ID;
+    static final int MAX_STRING_LENGTH = 0xFFFF;
+    static final int MAX_FIELD_COUNT = 0xFF;
+
+    static final String MESSAGE_KEY = "message";
+    static final String EXCEPTION_KEY = "exception";
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final @NonNull HashMap<String, Integer> dictionary = new HashMap<>();
+    private final @NonNull ArrayList<String> pendingDefinitions = new ArrayList<>();
+
+    private @NonNull byte[] buffer = new byte[DEFAULT_CAPACITY];
+    private int length = 0;
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Public Methods
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Encodes a single log record into the internal buffer.
+     *
+     * @param timestamp the time the record was logged, in milliseconds since the epoch
+     * @param level the android log level
+     * @param tag the log tag
+     * @param method the calling method
+     * @param fields alternating list of keys and values. Keys are converted to strings.
+     * @throws RuntimeException if a key or value cannot be converted to a string.  The partially
+     *                          encoded record and any dictionary entries it added are discarded.
+     */
+    public void writeRecord(
+        final long timestamp,
+        final int level,
+        @NonNull final String tag,
+        @NonNull final String method,
+        @Nullable final Object[] fields)
+    {
+        // Definitions are always flushed by the record that creates them, so none are pending here
+        int recordStart = length;
+        int dictionarySize = dictionary.size();
+
+        try
+        {
+            int tagId = lookupId(tag);
+            int methodId = lookupId(method);
+
+            int fieldCount = 0;
+            if (fields != null)
+            {
+                fieldCount = Math.min(fields.length / 2, MAX_FIELD_COUNT);
+                for (int i = 0; i < fieldCount; i++)
+                {
+                    lookupId(String.valueOf(fields[i * 2]));
+                }
+            }
+
+            flushDefinitions();
+
+            ensureCapacity(1 + Long.BYTES + 1 + Short.BYTES + Short.BYTES + 1);
+            length += UUData.writeUInt8(buffer, length, RECORD_TYPE_LOG);
+            length += UUData.writeInt64(BYTE_ORDER, buffer, length, timestamp);
+            length += UUData.writeUInt8(buffer, length, level);
+            writeId(tagId, tag);
+            writeId(methodId, method);
+
+            ensureCapacity(1);
+            length += UUData.writeUInt8(buffer, length, fieldCount);
+
+            for (int i = 0; i < fieldCount; i++)
+            {
+                String key = String.valueOf(fields[i * 2]);
+                writeId(lookupId(key), key);
+                writeValue(fields[i * 2 + 1]);
+            }
+        }
+        catch (RuntimeException ex)
+        {
+            rollback(recordStart, dictionarySize);
+            throw ex;
+        }
+    }
+
+    /**
+     * Writes all encoded bytes to a stream and resets the buffer.  If the write fails the buffer
+     * and the dictionary are both cleared, see {@link #clear()}.
+     *
+     * @param stream the destination stream
+     * @throws IOException if the stream write fails
+     */
+    public void writeTo(@NonNull final OutputStream stream) throws IOException
+    {
+        try
+        {
+            if (length > 0)
+            {
+                stream.write(buffer, 0, length);
+            }
+        }
+        catch (IOException ex)
+        {
+            clear();
+            throw ex;
+        }
+
+        reset();
+    }
+
+    /**
+     * Gets the raw encode buffer.  Only the first {@link #getLength()} bytes are valid.
+     *
+     * @return the buffer
+     */
+    @NonNull
+    public byte[] getBuffer()
+    {
+        return buffer;
+    }
+
+    /**
+     * Gets the number of encoded bytes waiting in the buffer
+     *
+     * @return number of bytes
+     */
+    public int getLength()
+    {
+        return length;
+    }
+
+    /**
+     * Discards any encoded bytes.  The dictionary is kept, since entries already written to the
+     * stream remain valid.
+     */
+    public void reset()
+    {
+        length = 0;
+    }
+
+    /**
+     * Discards any encoded bytes and forgets the dictionary.  Call this when encoded bytes may not
+     * have reached the stream, since dictionary entries defined in them would otherwise be
+     * referenced by later records without ever being written.  Strings are defined again the next
+     * time they are used.
+     */
+    public void clear()
+    {
+        length = 0;
+        dictionary.clear();
+        pendingDefinitions.clear();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private Methods
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private int lookupId(@NonNull final String string)
+    {
+        Integer id = dictionary.get(string);
+        if (id != null)
+        {
+            return id;
+        }
+
+        if (dictionary.size() >= MAX_DICTIONARY_SIZE)
+        {
+            return INLINE_ID;
+        }
+
+        int newId = dictionary.size();
+        dictionary.put(string, newId);
+        pendingDefinitions.add(string);
+        return newId;
+    }
+
+    private void rollback(final int recordStart, final int dictionarySize)
+    {
+        length = recordStart;
+        pendingDefinitions.clear();
+
+        Iterator<Integer> ids = dictionary.values().iterator();
+        while (ids.hasNext())
+        {
+            if (ids.next() >= dictionarySize)
+            {
+                ids.remove();
+            }
+        }
+    }
+
+    private void flushDefinitions()
+    {
+        if (pendingDefinitions.isEmpty())
+        {
+            return;
+        }
+
+        for (String definition : pendingDefinitions)
+        {
+            Integer id = dictionary.get(definition);
+            if (id == null)
+            {
+                continue;
+            }
+
+            ensureCapacity(1 + Short.BYTES);
+            length += UUData.writeUInt8(buffer, length, RECORD_TYPE_DEFINE);
+            length += UUData.writeUInt16(BYTE_ORDER, buffer, length, id);
+            writeString(definition);
+        }
+
+        pendingDefinitions.clear();
+    }
+
+    private void writeId(final int id, @NonNull final String string)
+    {
+        ensureCapacity(Short.BYTES);
+        length += UUData.writeUInt16(BYTE_ORDER, buffer, length, id);
+
+        if (id == INLINE_ID)
+        {
+            writeString(string);
+        }
+    }
+
+    private void writeString(@NonNull final String string)
+    {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        int count = Math.min(bytes.length, MAX_STRING_LENGTH);
+
+        ensureCapacity(Short.BYTES + count);
+        length += UUData.writeUInt16(BYTE_ORDER, buffer, length, count);
+        System.arraycopy(bytes, 0, buffer, length, count);
+        length += count;
+    }
+
+    private void writeValue(@Nullable final Object value)
+    {
+        ensureCapacity(1 + Long.BYTES);
+
+        if (value == null)
+        {
+            length += UUData.writeUInt8(buffer, length, VALUE_TYPE_NULL);
+        }
+        else if (value instanceof Boolean)
+        {
+            length += UUData.writeUInt8(buffer, length, VALUE_TYPE_BOOLEAN);
+            length += UUData.writeUInt8(buffer, length, ((Boolean) value) ? 1 : 0);
+        }
+        else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+        {
+            length += UUData.writeUInt8(buffer, length, VALUE_TYPE_LONG);
+            length += UUData.writeInt64(BYTE_ORDER, buffer, length, ((Number) value).longValue());
+        }
+        else if (value instanceof Double || value instanceof Float)
+        {
+            length += UUData.writeUInt8(buffer, length, VALUE_TYPE_DOUBLE);
+            length += UUData.writeInt64(BYTE_ORDER, buffer, length, Double.doubleToRawLongBits(((Number) value).doubleValue()));
+        }
+        else if (value instanceof byte[])
+        {
+            byte[] bytes = (byte[]) value;
+            ensureCapacity(1 + Integer.BYTES + bytes.length);
+            length += UUData.writeUInt8(buffer, length, VALUE_TYPE_BYTES);
+            length += UUData.writeUInt32(BYTE_ORDER, buffer, length, bytes.length);
+            length += UUData.writeData(buffer, length, bytes);
+        }
+        else
+        {
+            String string = value.toString();
+            length += UUData.writeUInt8(buffer, length, VALUE_TYPE_STRING);
+            writeString(string);
+        }
+    }
+
+    private void ensureCapacity(final int additional)
+    {
+        int required = length + additional;
+        if (required > buffer.length)
+        {
+            byte[] grown = new byte[Math.max(required, buffer.length * 2)];
+            System.arraycopy(buffer, 0, grown, 0, length);
+            buffer = grown;
+        }
+    }
+}
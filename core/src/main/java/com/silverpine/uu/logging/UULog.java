@@ -4,102 +4,291 @@ import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.util.DisplayMetrics;
 import android.util.Log;
 
 import com.silverpine.uu.core.BuildConfig;
-import com.silverpine.uu.core.UUWorkerThread;
-
-import java.io.PrintWriter;
-import java.io.StringWriter;
+import com.silverpine.uu.core.UUExecutor;
+import com.silverpine.uu.core.UUExecutors;
+import com.silverpine.uu.core.UUHistogram;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 /**
- * Simple logging wrapper.  Set LOGGING_ENABLED to false to turn off all Logging.  This is useful
- * when you want to disable all Log output for release builds in one common location.
+ * Simple logging wrapper.  Logging is controlled at runtime by a {@link UULogConfig}.  The
+ * default config enables all levels in debug builds and disables logging in release builds; call
+ * setConfig to turn on targeted diagnostics without a rebuild.
  */
 public class UULog
 {
+    /**
+     * Whether logging is enabled by default.  Logging is now controlled at runtime with
+     * {@link #setConfig(UULogConfig)}.
+     */
+    @Deprecated
     public static final boolean LOGGING_ENABLED = BuildConfig.DEBUG;
     private static final String NEW_LINE = "\n";
     private static final String LOG_TAG = "UULog";
-    private static final int LINE_LENGTH = 4000;
+    private static final int BATCH_SIZE = 64;
+    private static final int STACK_TRACE_CACHE_SIZE = 64;
+    private static final int DEFAULT_EXCEPTION_RATE_LIMIT = 10;
+    private static final long DEFAULT_EXCEPTION_RATE_WINDOW = 60000;
+
+    private static final UUExecutor executor = UUExecutors.looper("UULog");
+
+    private static final ConcurrentLinkedQueue<UULogRecord> pendingRecords = new ConcurrentLinkedQueue<>();
+    private static final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    private static final ArrayList<UULogRecord> drainBatch = new ArrayList<>(BATCH_SIZE);
+    private static final Runnable drainRunnable = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            threadDrainRecords();
+        }
+    };
+
+    private static final UULogcatSink logcatSink = new UULogcatSink();
+    private static final CopyOnWriteArrayList<UULogSink> sinks = new CopyOnWriteArrayList<>(Collections.singletonList(logcatSink));
+    private static UUBinaryLogSink structuredSink = null;
+
+    private static final UUStackTraceCache stackTraceCache = new UUStackTraceCache(STACK_TRACE_CACHE_SIZE);
 
-    private static final UUWorkerThread workerThread = new UUWorkerThread("UULog");
+    static
+    {
+        stackTraceCache.setRateLimit(DEFAULT_EXCEPTION_RATE_LIMIT, DEFAULT_EXCEPTION_RATE_WINDOW);
+    }
+
+    private static final long metricsStartTime = SystemClock.uptimeMillis();
+    private static final AtomicInteger queueDepth = new AtomicInteger();
+    private static final UUHistogram latencyHistogram = new UUHistogram();
+    private static final AtomicLongArray levelCounts = new AtomicLongArray(Log.ASSERT + 1);
+    private static final ConcurrentHashMap<String, AtomicLong> sinkBytes = new ConcurrentHashMap<>();
+    private static final AtomicLong printlnFailures = new AtomicLong();
+    private static final AtomicLong suppressedExceptions = new AtomicLong();
+
+    private static MetricsDelegate metricsDelegate = null;
+    private static Runnable metricsRunnable = null;
+
+    /**
+     * Callback for periodic metrics reporting
+     */
+    public interface MetricsDelegate
+    {
+        /**
+         * Invoked on the UULog worker thread with a fresh snapshot
+         *
+         * @param metrics the snapshot
+         */
+        void onMetrics(@NonNull UULogMetrics metrics);
+    }
+
+    private static volatile UULogConfig config = new UULogConfig(BuildConfig.DEBUG, Log.VERBOSE);
 
     private UULog()
     {
     }
 
+    /**
+     * Replaces the active logging configuration.  Takes effect immediately on all threads.
+     *
+     * @param newConfig the new config
+     */
+    public static void setConfig(@NonNull final UULogConfig newConfig)
+    {
+        config = newConfig;
+    }
+
+    /**
+     * Gets the active logging configuration
+     *
+     * @return the config
+     */
+    @NonNull
+    public static UULogConfig getConfig()
+    {
+        return config;
+    }
+
+    /**
+     * Checks whether a record would be written under the active config.  Use this to guard
+     * expensive message formatting.
+     *
+     * @param level the android log level
+     * @param callingClass the calling class
+     * @return true if the record would be written
+     */
+    public static boolean isLoggable(final int level, @Nullable final Class callingClass)
+    {
+        return config.isLoggable(level, callingClass);
+    }
+
     public synchronized static void error(final Class callingClass, final String method, final Throwable exception)
     {
-        if (LOGGING_ENABLED)
+        if (config.isLoggable(Log.ERROR, callingClass))
         {
             String tag = callingClass.getName();
-            writeToLog(Log.ERROR, tag, method, exception);
+            writeToLog(Log.ERROR, tag, method, null, exception, null);
         }
     }
 
     public synchronized static void error(final Class callingClass, final String method, final String message, final Throwable exception)
     {
-        if (LOGGING_ENABLED)
+        if (config.isLoggable(Log.ERROR, callingClass))
         {
             String tag = callingClass.getName();
-            writeToLog(Log.ERROR, tag, method + ": " + message, exception);
+            writeToLog(Log.ERROR, tag, method, message, exception, null);
         }
     }
 
     public static void debug(final Class callingClass, final String method, final String message)
     {
-        if (LOGGING_ENABLED)
+        if (config.isLoggable(Log.DEBUG, callingClass))
         {
             String tag = callingClass.getName();
-            writeToLog(Log.DEBUG, tag, method + ": " + message);
+            writeToLog(Log.DEBUG, tag, method, message, null, null);
         }
     }
 
     public synchronized static void debug(final Class callingClass, final String method, final Throwable exception)
     {
-        if (LOGGING_ENABLED)
+        if (config.isLoggable(Log.DEBUG, callingClass))
         {
             String tag = callingClass.getName();
-            writeToLog(Log.DEBUG, tag, method, exception);
+            writeToLog(Log.DEBUG, tag, method, null, exception, null);
         }
     }
 
     public synchronized static void debug(final Class callingClass, final String method, final String message, final Throwable exception)
     {
-        if (LOGGING_ENABLED)
+        if (config.isLoggable(Log.DEBUG, callingClass))
         {
             String tag = callingClass.getName();
-            writeToLog(Log.DEBUG, tag, method + ": " + message, exception);
+            writeToLog(Log.DEBUG, tag, method, message, exception, null);
         }
     }
 
     public static void warn(final Class callingClass, final String method, final String message)
     {
-        if (LOGGING_ENABLED)
+        if (config.isLoggable(Log.WARN, callingClass))
         {
             String tag = callingClass.getName();
-            writeToLog(Log.WARN, tag, method + ": " + message);
+            writeToLog(Log.WARN, tag, method, message, null, null);
         }
     }
 
     public static void error(final Class callingClass, final String method, final String message)
     {
-        if (LOGGING_ENABLED)
+        if (config.isLoggable(Log.ERROR, callingClass))
         {
             String tag = callingClass.getName();
-            writeToLog(Log.ERROR, tag, method + ": " + message);
+            writeToLog(Log.ERROR, tag, method, message, null, null);
+        }
+    }
+
+    /**
+     * Logs a structured record.  Keys and values are passed as alternating arguments, for example
+     * structured(Log.DEBUG, getClass(), "connect", "host", host, "port", port).
+     *
+     * When a structured output is set, the record is written in binary form with the tag, method
+     * and keys referenced by dictionary id.  Otherwise it is formatted as text as key=value pairs.
+     *
+     * @param level the android log level
+     * @param callingClass the calling class
+     * @param method the calling method
+     * @param fields alternating keys and values
+     */
+    public static void structured(final int level, final Class callingClass, final String method, final Object... fields)
+    {
+        if (config.isLoggable(level, callingClass))
+        {
+            String tag = callingClass.getName();
+            writeToLog(level, tag, method, null, null, fields);
+        }
+    }
+
+    /**
+     * Switches UULog into structured mode.  While a stream is set, every log record is encoded with
+     * {@link UUBinaryLogWriter} and written to it instead of logcat.  Decode the stream with
+     * {@link UUBinaryLogReader}.
+     *
+     * Each new stream starts with a fresh tag dictionary.  Pass null to return to text logging.
+     *
+     * @param stream the destination stream, or null
+     */
+    public static synchronized void setStructuredOutput(@Nullable final OutputStream stream)
+    {
+        if (structuredSink != null)
+        {
+            sinks.remove(structuredSink);
+            structuredSink = null;
+        }
+
+        if (stream != null)
+        {
+            structuredSink = new UUBinaryLogSink(stream);
+            sinks.add(structuredSink);
+            sinks.remove(logcatSink);
+        }
+        else
+        {
+            sinks.addIfAbsent(logcatSink);
         }
     }
 
+    /**
+     * Limits how often an identical exception is logged.  Exceptions are identical when their
+     * class, message and stack frames match.  Records over the limit are dropped, and the next
+     * record that is written for that exception notes how many were suppressed.
+     *
+     * @param maxPerWindow number of identical exceptions logged per window, zero to disable
+     * @param windowMillis window length in milliseconds
+     */
+    public static void setExceptionRateLimit(final int maxPerWindow, final long windowMillis)
+    {
+        stackTraceCache.setRateLimit(maxPerWindow, windowMillis);
+    }
+
+    /**
+     * Adds an additional sink.  Sinks are invoked in order on the UULog worker thread with each
+     * drained batch of records.
+     *
+     * @param sink the sink to add
+     */
+    public static void addSink(@NonNull final UULogSink sink)
+    {
+        sinks.addIfAbsent(sink);
+    }
+
+    /**
+     * Removes a previously added sink
+     *
+     * @param sink the sink to remove
+     */
+    public static void removeSink(@NonNull final UULogSink sink)
+    {
+        sinks.remove(sink);
+    }
+
     public static void logIntent(final Class callingClass, final String method, final String message, final Intent intent)
     {
-        if (LOGGING_ENABLED)
+        if (config.isLoggable(Log.DEBUG, callingClass))
         {
             if (intent != null)
             {
@@ -174,14 +363,14 @@ public class UULog
                     sb.append(NEW_LINE);
                 }
 
-                debug(callingClass, method, sb.toString());
+                writeToLog(Log.DEBUG, callingClass.getName(), method, sb.toString(), null, null);
             }
         }
     }
 
     public static void logDisplayMetrics(final Class callingClass, final String method, final String message, @NonNull final Context applicationContext)
     {
-        if (LOGGING_ENABLED)
+        if (config.isLoggable(Log.DEBUG, callingClass))
         {
             try
             {
@@ -218,7 +407,7 @@ public class UULog
                 sb.append("ydpi: ");
                 sb.append(dm.ydpi);
 
-                debug(callingClass, method, sb.toString());
+                writeToLog(Log.DEBUG, callingClass.getName(), method, sb.toString(), null, null);
             }
             catch (Exception ex)
             {
@@ -227,28 +416,33 @@ public class UULog
         }
     }
 
-    private static void writeToLog(int level, String tag, String logLine)
+    private static void writeToLog(
+        final int level,
+        @NonNull final String tag,
+        @NonNull final String method,
+        @Nullable final String message,
+        @Nullable final Throwable exception,
+        @Nullable final Object[] fields)
     {
-        writeToLog(level, tag, logLine, null);
-    }
+        pendingRecords.offer(new UULogRecord(System.currentTimeMillis(), level, tag, method, message, exception, fields));
+        queueDepth.incrementAndGet();
 
-    private static void writeToLog(final int level, final String tag, final String logLine, final Throwable exception)
-    {
-        postRunnable(new Runnable()
+        if (level >= 0 && level < levelCounts.length())
         {
-            @Override
-            public void run()
-            {
-                threadDoLogWrite(level, tag, logLine, exception);
-            }
-        });
+            levelCounts.incrementAndGet(level);
+        }
+
+        if (drainScheduled.compareAndSet(false, true))
+        {
+            postRunnable(drainRunnable);
+        }
     }
 
     private static void postRunnable(final Runnable runnable)
     {
         try
         {
-            workerThread.post(runnable);
+            executor.post(runnable);
         }
         catch (Exception ex)
         {
@@ -256,40 +450,186 @@ public class UULog
         }
     }
 
-    private static void threadDoLogWrite(int level, String tag, String logLine, Throwable exception)
+    private static void threadDrainRecords()
     {
         try
         {
-            if (exception != null)
+            UULogRecord record;
+            while (drainBatch.size() < BATCH_SIZE && (record = pendingRecords.poll()) != null)
             {
-                logLine += ", Exception: " + stackTraceToString(exception);
-            }
+                queueDepth.decrementAndGet();
 
-            int expectedToWrite = logLine.length();
-            int totalWritten = 0;
+                Throwable exception = record.getException();
+                if (exception != null)
+                {
+                    String exceptionText = stackTraceCache.renderForLog(exception, SystemClock.uptimeMillis());
+                    if (exceptionText == null)
+                    {
+                        suppressedExceptions.incrementAndGet();
+                        continue;
+                    }
 
+                    record.setExceptionText(exceptionText);
+                }
 
-            while (totalWritten < expectedToWrite)
-            {
-                String chunk = logLine.substring(totalWritten, Math.min(totalWritten + LINE_LENGTH, logLine.length()));
-                int bytesWritten = Log.println(level, tag, chunk);
+                drainBatch.add(record);
+            }
 
-                // On some devices, logging seems to fail and return zero.  In this case, we have to just
-                // abort and let the app keep running.
-                if (bytesWritten <= 0)
+            if (!drainBatch.isEmpty())
+            {
+                for (UULogSink sink : sinks)
                 {
-                    break;
+                    try
+                    {
+                        sink.writeBatch(drainBatch);
+                    }
+                    catch (Exception ex)
+                    {
+                        Log.e(LOG_TAG, "Error writing to log sink", ex);
+                    }
                 }
 
-                totalWritten += chunk.length();
+                long now = System.nanoTime();
+                for (UULogRecord r : drainBatch)
+                {
+                    latencyHistogram.record((now - r.getEnqueueTime()) / 1000L);
+                }
             }
         }
         catch (Exception ex)
         {
-            Log.e(LOG_TAG, "Error writing to log", ex);
+            Log.e(LOG_TAG, "Error draining log records", ex);
+        }
+        finally
+        {
+            drainBatch.clear();
+        }
+
+        // Yield between batches so other work on the worker thread still gets a turn
+        if (!pendingRecords.isEmpty())
+        {
+            postRunnable(drainRunnable);
+            return;
+        }
+
+        drainScheduled.set(false);
+
+        if (!pendingRecords.isEmpty() && drainScheduled.compareAndSet(false, true))
+        {
+            postRunnable(drainRunnable);
         }
     }
 
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Metrics
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Takes a snapshot of logging throughput and latency
+     *
+     * @return a metrics snapshot
+     */
+    @NonNull
+    public static UULogMetrics getMetrics()
+    {
+        long[] levels = new long[levelCounts.length()];
+        for (int i = 0; i < levels.length; i++)
+        {
+            levels[i] = levelCounts.get(i);
+        }
+
+        HashMap<String, Long> bytes = new HashMap<>();
+        for (Map.Entry<String, AtomicLong> entry : sinkBytes.entrySet())
+        {
+            bytes.put(entry.getKey(), entry.getValue().get());
+        }
+
+        return new UULogMetrics(
+            SystemClock.uptimeMillis(),
+            metricsStartTime,
+            queueDepth.get(),
+            latencyHistogram.copy(),
+            levels,
+            bytes,
+            printlnFailures.get(),
+            suppressedExceptions.get());
+    }
+
+    /**
+     * Emits a metrics snapshot periodically from the UULog worker thread.
+     *
+     * @param delegate the delegate to receive snapshots, or null to stop reporting
+     * @param intervalMillis reporting interval in milliseconds
+     */
+    public static synchronized void setMetricsDelegate(@Nullable final MetricsDelegate delegate, final long intervalMillis)
+    {
+        if (metricsRunnable != null)
+        {
+            executor.removeRunnable(metricsRunnable);
+            metricsRunnable = null;
+        }
+
+        metricsDelegate = delegate;
+
+        if (delegate != null && intervalMillis > 0)
+        {
+            metricsRunnable = new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        delegate.onMetrics(getMetrics());
+                    }
+                    catch (Exception ex)
+                    {
+                        Log.e(LOG_TAG, "Error reporting metrics", ex);
+                    }
+
+                    synchronized (UULog.class)
+                    {
+                        if (metricsDelegate == delegate && metricsRunnable == this)
+                        {
+                            executor.postDelayed(this, intervalMillis);
+                        }
+                    }
+                }
+            };
+
+            executor.postDelayed(metricsRunnable, intervalMillis);
+        }
+    }
+
+    /**
+     * Adds to the bytes written total reported for a sink.  Sinks call this after each write.
+     *
+     * @param sink the sink
+     * @param bytes number of bytes written
+     */
+    public static void recordBytesWritten(@NonNull final UULogSink sink, final long bytes)
+    {
+        AtomicLong total = sinkBytes.get(sink.getName());
+        if (total == null)
+        {
+            total = sinkBytes.computeIfAbsent(sink.getName(), key -> new AtomicLong());
+        }
+
+        total.addAndGet(bytes);
+    }
+
+    static void recordPrintlnFailure()
+    {
+        printlnFailures.incrementAndGet();
+    }
+
+    /**
+     * Renders a throwable and its causes.  Identical throwables are only rendered once and then
+     * served from a bounded cache.
+     *
+     * @param throwable the throwable
+     * @return the stack trace text, or an empty string if throwable is null
+     */
     @NonNull
     public static String stackTraceToString(@Nullable final Throwable throwable)
     {
@@ -297,9 +637,7 @@ public class UULog
         {
             if (throwable != null)
             {
-                StringWriter sw = new StringWriter();
-                throwable.printStackTrace(new PrintWriter(sw));
-                return sw.toString();
+                return stackTraceCache.render(throwable);
             }
         }
         catch (Throwable t)
@@ -319,7 +657,6 @@ public class UULog
             // Eat it
         }
 
-
         return "";
     }
 }
@@ -0,0 +1,196 @@
+package com.silverpine.uu.logging;
+
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Immutable runtime logging configuration.
+ *
+ * UULog reads the active config through a single volatile field, so switching configs at runtime
+ * is safe from any thread and a disabled config costs one field read per log call.  Use the
+ * with methods to derive a modified copy and pass it to {@link UULog#setConfig(UULogConfig)}.
+ */
+@SuppressWarnings("unused")
+public final class UULogConfig
+{
+    private final boolean enabled;
+    private final int level;
+    private final @Nullable HashMap<String, Integer> classLevels;
+    private final double samplingRate;
+
+    /**
+     * Creates a config with no per class levels and no sampling
+     *
+     * @param enabled master switch for all logging
+     * @param level the minimum android log level that is written
+     */
+    public UULogConfig(final boolean enabled, final int level)
+    {
+        this(enabled, level, null, 1.0);
+    }
+
+    private UULogConfig(
+        final boolean enabled,
+        final int level,
+        @Nullable final HashMap<String, Integer> classLevels,
+        final double samplingRate)
+    {
+        this.enabled = enabled;
+        this.level = level;
+        this.classLevels = classLevels;
+        this.samplingRate = samplingRate;
+    }
+
+    /**
+     * Checks if a record should be written
+     *
+     * @param level the android log level of the record
+     * @param callingClass the class logging the record
+     * @return true if the record should be written
+     */
+    public boolean isLoggable(final int level, @Nullable final Class callingClass)
+    {
+        if (!enabled)
+        {
+            return false;
+        }
+
+        int minLevel = this.level;
+
+        if (classLevels != null && callingClass != null)
+        {
+            Integer classLevel = classLevels.get(callingClass.getName());
+            if (classLevel != null)
+            {
+                minLevel = classLevel;
+            }
+        }
+
+        if (level < minLevel)
+        {
+            return false;
+        }
+
+        if (samplingRate < 1.0 && level < Log.WARN)
+        {
+            return ThreadLocalRandom.current().nextDouble() < samplingRate;
+        }
+
+        return true;
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public int getLevel()
+    {
+        return level;
+    }
+
+    public double getSamplingRate()
+    {
+        return samplingRate;
+    }
+
+    /**
+     * Gets the level override for a class
+     *
+     * @param className fully qualified class name
+     * @return the level, or null if the class uses the global level
+     */
+    @Nullable
+    public Integer getClassLevel(@NonNull final String className)
+    {
+        return (classLevels != null ? classLevels.get(className) : null);
+    }
+
+    /**
+     * Returns a copy of this config with logging switched on or off
+     *
+     * @param enabled master switch
+     * @return a new config
+     */
+    @NonNull
+    public UULogConfig withEnabled(final boolean enabled)
+    {
+        return new UULogConfig(enabled, level, classLevels, samplingRate);
+    }
+
+    /**
+     * Returns a copy of this config with a different global level
+     *
+     * @param level the minimum android log level that is written
+     * @return a new config
+     */
+    @NonNull
+    public UULogConfig withLevel(final int level)
+    {
+        return new UULogConfig(enabled, level, classLevels, samplingRate);
+    }
+
+    /**
+     * Returns a copy of this config with a level override for one class
+     *
+     * @param className fully qualified class name, as passed to UULog as the calling class
+     * @param level the minimum android log level for that class, or null to remove the override
+     * @return a new config
+     */
+    @NonNull
+    public UULogConfig withClassLevel(@NonNull final String className, @Nullable final Integer level)
+    {
+        HashMap<String, Integer> levels = (classLevels != null ? new HashMap<>(classLevels) : new HashMap<>());
+
+        if (level != null)
+        {
+            levels.put(className, level);
+        }
+        else
+        {
+            levels.remove(className);
+        }
+
+        return new UULogConfig(enabled, this.level, (levels.isEmpty() ? null : levels), samplingRate);
+    }
+
+    /**
+     * Returns a copy of this config with a level override for one class
+     *
+     * @param callingClass the class
+     * @param level the minimum android log level for that class, or null to remove the override
+     * @return a new config
+     */
+    @NonNull
+    public UULogConfig withClassLevel(@NonNull final Class callingClass, @Nullable final Integer level)
+    {
+        return withClassLevel(callingClass.getName(), level);
+    }
+
+    /**
+     * Returns a copy of this config that only writes a fraction of records below WARN.  Warnings
+     * and errors are never sampled.
+     *
+     * @param samplingRate fraction of records to keep, between 0 and 1
+     * @return a new config
+     */
+    @NonNull
+    public UULogConfig withSamplingRate(final double samplingRate)
+    {
+        return new UULogConfig(enabled, level, classLevels, Math.min(1.0, Math.max(0.0, samplingRate)));
+    }
+
+    @NonNull
+    @Override
+    public String toString()
+    {
+        return String.format(Locale.US, "enabled: %s, level: %d, classLevels: %s, samplingRate: %.3f",
+            enabled, level, classLevels, samplingRate);
+    }
+}
@@ -0,0 +1,167 @@
+package com.silverpine.uu.logging;
+
+import android.util.Log;
+
+import com.silverpine.uu.core.UUHistogram;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Point in time snapshot of UULog throughput and latency.  Obtain one from
+ * {@link UULog#getMetrics()}.
+ */
+@SuppressWarnings("unused")
+public final class UULogMetrics
+{
+    private final long captureTime;
+    private final long startTime;
+    private final int queueDepth;
+    private final @NonNull UUHistogram latency;
+    private final @NonNull long[] levelCounts;
+    private final @NonNull Map<String, Long> sinkBytes;
+    private final long printlnFailures;
+    private final long suppressedExceptions;
+
+    UULogMetrics(
+        final long captureTime,
+        final long startTime,
+        final int queueDepth,
+        @NonNull final UUHistogram latency,
+        @NonNull final long[] levelCounts,
+        @NonNull final HashMap<String, Long> sinkBytes,
+        final long printlnFailures,
+        final long suppressedExceptions)
+    {
+        this.captureTime = captureTime;
+        this.startTime = startTime;
+        this.queueDepth = queueDepth;
+        this.latency = latency;
+        this.levelCounts = levelCounts;
+        this.sinkBytes = Collections.unmodifiableMap(sinkBytes);
+        this.printlnFailures = printlnFailures;
+        this.suppressedExceptions = suppressedExceptions;
+    }
+
+    /**
+     * Gets the time this snapshot was taken
+     *
+     * @return SystemClock.uptimeMillis() at capture
+     */
+    public long getCaptureTime()
+    {
+        return captureTime;
+    }
+
+    /**
+     * Gets the number of records waiting for the worker thread
+     *
+     * @return queue depth
+     */
+    public int getQueueDepth()
+    {
+        return queueDepth;
+    }
+
+    /**
+     * Gets the histogram of time between a record being logged and all sinks writing it
+     *
+     * @return latency histogram in microseconds
+     */
+    @NonNull
+    public UUHistogram getLatency()
+    {
+        return latency;
+    }
+
+    /**
+     * Gets the total number of records logged at a level
+     *
+     * @param level one of the android.util.Log level constants
+     * @return number of records
+     */
+    public long getRecordCount(final int level)
+    {
+        if (level < 0 || level >= levelCounts.length)
+        {
+            return 0;
+        }
+
+        return levelCounts[level];
+    }
+
+    /**
+     * Gets the rate records were logged at a level.
+     *
+     * @param level one of the android.util.Log level constants
+     * @param previous an earlier snapshot to measure from, or null to measure from process start
+     * @return records per second
+     */
+    public double getRecordsPerSecond(final int level, @Nullable final UULogMetrics previous)
+    {
+        long fromTime = (previous != null ? previous.captureTime : startTime);
+        long fromCount = (previous != null ? previous.getRecordCount(level) : 0);
+        long elapsed = captureTime - fromTime;
+
+        if (elapsed <= 0)
+        {
+            return 0;
+        }
+
+        return ((double) (getRecordCount(level) - fromCount) * 1000.0) / (double) elapsed;
+    }
+
+    /**
+     * Gets the number of bytes written by each sink
+     *
+     * @return map of sink name to bytes written
+     */
+    @NonNull
+    public Map<String, Long> getSinkBytes()
+    {
+        return sinkBytes;
+    }
+
+    /**
+     * Gets the number of times Log.println returned zero or less and output was abandoned
+     *
+     * @return failure count
+     */
+    public long getPrintlnFailures()
+    {
+        return printlnFailures;
+    }
+
+    /**
+     * Gets the number of records dropped by the exception rate limit
+     *
+     * @return dropped record count
+     */
+    public long getSuppressedExceptions()
+    {
+        return suppressedExceptions;
+    }
+
+    @NonNull
+    @Override
+    public String toString()
+    {
+        return String.format(Locale.US,
+            "queueDepth: %d, latencyMicros: [%s], verbose: %d, debug: %d, info: %d, warn: %d, error: %d, sinkBytes: %s, printlnFailures: %d, suppressedExceptions: %d",
+            queueDepth,
+            latency,
+            getRecordCount(Log.VERBOSE),
+            getRecordCount(Log.DEBUG),
+            getRecordCount(Log.INFO),
+            getRecordCount(Log.WARN),
+            getRecordCount(Log.ERROR),
+            sinkBytes,
+            printlnFailures,
+            suppressedExceptions);
+    }
+}
@@ -0,0 +1,125 @@
+package com.silverpine.uu.logging;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * A single queued log record.  Records are created on the calling thread and handed to each
+ * {@link UULogSink} on the UULog worker thread.
+ */
+public final class UULogRecord
+{
+    private final long timestamp;
+    private final long enqueueTime = System.nanoTime();
+    private final int level;
+    private final @NonNull String tag;
+    private final @NonNull String method;
+    private final @Nullable String message;
+    private final @Nullable Throwable exception;
+    private final @Nullable Object[] fields;
+    private @Nullable String exceptionText = null;
+
+    UULogRecord(
+        final long timestamp,
+        final int level,
+        @NonNull final String tag,
+        @NonNull final String method,
+        @Nullable final String message,
+        @Nullable final Throwable exception,
+        @Nullable final Object[] fields)
+    {
+        this.timestamp = timestamp;
+        this.level = level;
+        this.tag = tag;
+        this.method = method;
+        this.message = message;
+        this.exception = exception;
+        this.fields = fields;
+    }
+
+    /**
+     * Gets the time the record was logged
+     *
+     * @return milliseconds since the epoch
+     */
+    public long getTimestamp()
+    {
+        return timestamp;
+    }
+
+    /**
+     * Gets the monotonic time the record was queued, used for latency metrics
+     *
+     * @return System.nanoTime() when the record was created
+     */
+    long getEnqueueTime()
+    {
+        return enqueueTime;
+    }
+
+    /**
+     * Gets the android log level
+     *
+     * @return one of the android.util.Log level constants
+     */
+    public int getLevel()
+    {
+        return level;
+    }
+
+    @NonNull
+    public String getTag()
+    {
+        return tag;
+    }
+
+    @NonNull
+    public String getMethod()
+    {
+        return method;
+    }
+
+    @Nullable
+    public String getMessage()
+    {
+        return message;
+    }
+
+    @Nullable
+    public Throwable getException()
+    {
+        return exception;
+    }
+
+    /**
+     * Gets the rendered stack trace of the exception, if any
+     *
+     * @return the rendered stack trace, or an empty string when there is no exception
+     */
+    @NonNull
+    public String getExceptionText()
+    {
+        if (exceptionText == null)
+        {
+            exceptionText = UULog.stackTraceToString(exception);
+        }
+
+        return exceptionText;
+    }
+
+    void setExceptionText(@Nullable final String exceptionText)
+    {
+        this.exceptionText = exceptionText;
+    }
+
+    /**
+     * Gets the structured fields, as alternating keys and values
+     *
+     * @return an array or null
+     */
+    @Nullable
+    public Object[] getFields()
+    {
+        return fields;
+    }
+}
@@ -0,0 +1,43 @@
+package com.silverpine.uu.logging;
+
+import androidx.annotation.NonNull;
+
+import java.util.List;
+
+/**
+ * Destination for UULog records.  All methods are invoked on the UULog worker thread.
+ */
+public interface UULogSink
+{
+    /**
+     * Writes a single record
+     *
+     * @param record the record
+     */
+    void write(@NonNull final UULogRecord record);
+
+    /**
+     * Gets the name this sink is reported under in {@link UULogMetrics}
+     *
+     * @return a name
+     */
+    @NonNull
+    default String getName()
+    {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * Writes a batch of records drained from the UULog queue.  Sinks that can coalesce output into
+     * a shared buffer should override this.  The list is reused after this call returns.
+     *
+     * @param records the records, in the order they were logged
+     */
+    default void writeBatch(@NonNull final List<UULogRecord> records)
+    {
+        for (UULogRecord record : records)
+        {
+            write(record);
+        }
+    }
+}
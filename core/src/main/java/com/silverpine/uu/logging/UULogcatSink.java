@@ -0,0 +1,159 @@
+package com.silverpine.uu.logging;
+
+import android.util.Log;
+
+import java.util.List;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Default UULog sink that writes to logcat.
+ *
+ * Consecutive records in a batch that share a level and tag are coalesced into a single
+ * Log.println call, separated by new lines, as long as they fit in one logcat line.  Lines longer
+ * than the logcat limit are split into chunks straight out of the shared buffer.
+ */
+public class UULogcatSink implements UULogSink
+{
+    private static final String LOG_TAG = "UULog";
+    private static final int LINE_LENGTH = 4000;
+    private static final char NEW_LINE = '\n';
+
+    private final @NonNull StringBuilder line = new StringBuilder();
+    private final @NonNull StringBuilder pending = new StringBuilder();
+    private int pendingLevel = 0;
+    private String pendingTag = null;
+
+    @Override
+    public void write(@NonNull final UULogRecord record)
+    {
+        appendRecord(record);
+        flushPending();
+    }
+
+    @Override
+    public void writeBatch(@NonNull final List<UULogRecord> records)
+    {
+        for (UULogRecord record : records)
+        {
+            appendRecord(record);
+        }
+
+        flushPending();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private Methods
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void appendRecord(@NonNull final UULogRecord record)
+    {
+        try
+        {
+            line.setLength(0);
+            formatRecord(record, line);
+
+            if (pending.length() > 0)
+            {
+                boolean sameLine = (record.getLevel() == pendingLevel && record.getTag().equals(pendingTag));
+                if (!sameLine || (pending.length() + 1 + line.length()) > LINE_LENGTH)
+                {
+                    flushPending();
+                }
+            }
+
+            if (line.length() > LINE_LENGTH)
+            {
+                println(record.getLevel(), record.getTag(), line);
+                return;
+            }
+
+            if (pending.length() > 0)
+            {
+                pending.append(NEW_LINE);
+            }
+
+            pending.append(line);
+            pendingLevel = record.getLevel();
+            pendingTag = record.getTag();
+        }
+        catch (Exception ex)
+        {
+            Log.e(LOG_TAG, "Error writing to log", ex);
+        }
+    }
+
+    private void flushPending()
+    {
+        if (pending.length() > 0)
+        {
+            println(pendingLevel, pendingTag, pending);
+            pending.setLength(0);
+        }
+    }
+
+    private void println(final int level, final String tag, @NonNull final StringBuilder text)
+    {
+        try
+        {
+            int expectedToWrite = text.length();
+            int totalWritten = 0;
+
+            while (totalWritten < expectedToWrite)
+            {
+                int end = Math.min(totalWritten + LINE_LENGTH, expectedToWrite);
+                int bytesWritten = Log.println(level, tag, text.substring(totalWritten, end));
+
+                // On some devices, logging seems to fail and return zero.  In this case, we have to just
+                // abort and let the app keep running.
+                if (bytesWritten <= 0)
+                {
+                    UULog.recordPrintlnFailure();
+                    break;
+                }
+
+                UULog.recordBytesWritten(this, bytesWritten);
+
+                totalWritten = end;
+            }
+        }
+        catch (Exception ex)
+        {
+            Log.e(LOG_TAG, "Error writing to log", ex);
+        }
+    }
+
+    private static void formatRecord(@NonNull final UULogRecord record, @NonNull final StringBuilder sb)
+    {
+        sb.append(record.getMethod());
+
+        Object[] fields = record.getFields();
+        String message = record.getMessage();
+
+        int written = 0;
+        if (fields != null)
+        {
+            for (int i = 0; i + 1 < fields.length; i += 2)
+            {
+                sb.append(written == 0 ? ": " : ", ");
+                sb.append(fields[i]);
+                sb.append("=");
+                sb.append(fields[i + 1]);
+                written++;
+            }
+        }
+
+        if (message != null)
+        {
+            sb.append(written == 0 ? ": " : ", ");
+            sb.append(message);
+        }
+
+        Throwable exception = record.getException();
+        if (exception != null)
+        {
+            sb.append(", Exception: ");
+            sb.append(record.getExceptionText());
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.silverpine.uu.logging;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Bounded cache of rendered stack traces, keyed by the class, message and stack frames of the
+ * throwable and its causes.
+ *
+ * Two throwables share an entry when their class, message and stack frames match across the
+ * whole cause chain, so a failure thrown repeatedly from the same place is only rendered once.
+ * A 64 bit fingerprint is used as the hash, and the full key is compared on every hit so
+ * fingerprint collisions never share an entry.  The cache also tracks how often each entry is
+ * logged so that repeats can be rate limited.
+ */
+final class UUStackTraceCache
+{
+    private static final int MAX_CAUSE_DEPTH = 16;
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private final int maxEntries;
+    private final @NonNull LinkedHashMap<Key, Entry> entries;
+
+    private int maxPerWindow = 0;
+    private long windowMillis = 0;
+
+    private static final class Entry
+    {
+        private final @NonNull String rendered;
+        private long windowStart = 0;
+        private int windowCount = 0;
+        private int suppressed = 0;
+
+        private Entry(@NonNull final String rendered)
+        {
+            this.rendered = rendered;
+        }
+    }
+
+    /**
+     * Canonical form of a throwable's cause chain
+     */
+    private static final class Key
+    {
+        private final long fingerprint;
+        private final @NonNull String[] classNames;
+        private final @NonNull String[] messages;
+        private final @NonNull StackTraceElement[][] frames;
+
+        private Key(@NonNull final ArrayList<Throwable> chain)
+        {
+            int count = chain.size();
+            classNames = new String[count];
+            messages = new String[count];
+            frames = new StackTraceElement[count][];
+
+            long hash = FNV_OFFSET_BASIS;
+
+            for (int i = 0; i < count; i++)
+            {
+                Throwable t = chain.get(i);
+                classNames[i] = t.getClass().getName();
+                messages[i] = String.valueOf(t.getMessage());
+                frames[i] = t.getStackTrace();
+
+                hash = mix(hash, classNames[i].hashCode());
+                hash = mix(hash, messages[i].hashCode());
+                hash = mix(hash, frames[i].length);
+
+                for (StackTraceElement frame : frames[i])
+                {
+                    hash = mix(hash, frame.getClassName().hashCode());
+                    hash = mix(hash, frame.getMethodName().hashCode());
+                    hash = mix(hash, frame.getLineNumber());
+                }
+            }
+
+            fingerprint = hash;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return (int) (fingerprint ^ (fingerprint >>> 32));
+        }
+
+        @Override
+        public boolean equals(final Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+
+            if (!(obj instanceof Key))
+            {
+                return false;
+            }
+
+            Key other = (Key) obj;
+            return (fingerprint == other.fingerprint &&
+                    Arrays.equals(classNames, other.classNames) &&
+                    Arrays.equals(messages, other.messages) &&
+                    Arrays.deepEquals(frames, other.frames));
+        }
+    }
+
+    UUStackTraceCache(final int maxEntries)
+    {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, Entry> eldest)
+            {
+                return size() > UUStackTraceCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Limits how many times the same exception may be logged within a time window.
+     *
+     * @param maxPerWindow number of identical exceptions allowed per window, zero to disable
+     * @param windowMillis window length in milliseconds
+     */
+    synchronized void setRateLimit(final int maxPerWindow, final long windowMillis)
+    {
+        this.maxPerWindow = maxPerWindow;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Renders a throwable, reusing a cached rendering when an identical one was seen before.
+     *
+     * @param throwable the throwable
+     * @return the rendered stack trace
+     */
+    @NonNull
+    synchronized String render(@NonNull final Throwable throwable)
+    {
+        return lookup(throwable).rendered;
+    }
+
+    /**
+     * Renders a throwable for a log record, applying the rate limit.
+     *
+     * @param throwable the throwable
+     * @param now current time in milliseconds from a monotonic clock
+     * @return the rendered stack trace, or null if this record should be dropped as a duplicate.
+     * When earlier duplicates were dropped, the count is appended to the returned text.
+     */
+    @Nullable
+    synchronized String renderForLog(@NonNull final Throwable throwable, final long now)
+    {
+        Entry entry = lookup(throwable);
+
+        if (maxPerWindow <= 0)
+        {
+            return entry.rendered;
+        }
+
+        if (entry.windowCount == 0 || (now - entry.windowStart) >= windowMillis)
+        {
+            entry.windowStart = now;
+            entry.windowCount = 0;
+        }
+
+        if (entry.windowCount >= maxPerWindow)
+        {
+            entry.suppressed++;
+            return null;
+        }
+
+        entry.windowCount++;
+
+        if (entry.suppressed > 0)
+        {
+            int suppressed = entry.suppressed;
+            entry.suppressed = 0;
+            return entry.rendered + "(" + suppressed + " identical exceptions suppressed)";
+        }
+
+        return entry.rendered;
+    }
+
+    /**
+     * Computes a fingerprint over the class, message and stack frames of a throwable and its causes
+     *
+     * @param throwable the throwable
+     * @return a 64 bit fingerprint
+     */
+    static long fingerprint(@NonNull final Throwable throwable)
+    {
+        return keyFor(throwable).fingerprint;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private Methods
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    @NonNull
+    private Entry lookup(@NonNull final Throwable throwable)
+    {
+        Key key = keyFor(throwable);
+        Entry entry = entries.get(key);
+        if (entry == null)
+        {
+            entry = new Entry(renderStackTrace(throwable));
+            entries.put(key, entry);
+        }
+
+        return entry;
+    }
+
+    @NonNull
+    private static Key keyFor(@NonNull final Throwable throwable)
+    {
+        ArrayList<Throwable> chain = new ArrayList<>();
+        IdentityHashMap<Throwable, Boolean> seen = null;
+        Throwable current = throwable;
+
+        while (current != null && chain.size() < MAX_CAUSE_DEPTH)
+        {
+            chain.add(current);
+
+            Throwable cause = current.getCause();
+            if (cause == null || cause == current)
+            {
+                break;
+            }
+
+            if (seen == null)
+            {
+                seen = new IdentityHashMap<>();
+            }
+
+            if (seen.put(current, Boolean.TRUE) != null)
+            {
+                break;
+            }
+
+            current = cause;
+        }
+
+        return new Key(chain);
+    }
+
+    private static long mix(final long hash, final int value)
+    {
+        return (hash ^ value) * FNV_PRIME;
+    }
+
+    @NonNull
+    private static String renderStackTrace(@NonNull final Throwable throwable)
+    {
+        try
+        {
+            StringWriter sw = new StringWriter();
+            throwable.printStackTrace(new PrintWriter(sw));
+            return sw.toString();
+        }
+        catch (Throwable t)
+        {
+            // Eat it
+        }
+
+        try
+        {
+            return throwable.toString();
+        }
+        catch (Throwable t)
+        {
+            // Eat it
+        }
+
+        return "";
+    }
+}
@@ -0,0 +1,129 @@
+package com.silverpine.uu.core;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.RejectedExecutionException;
+
+public class UUCancellationTokenTests
+{
+    @Test
+    public void testChildCancellation()
+    {
+        UUCancellationToken root = new UUCancellationToken();
+        UUCancellationToken child = root.createChild();
+        UUCancellationToken grandChild = child.createChild();
+
+        ArrayList<String> cancelled = new ArrayList<>();
+        child.register(() -> cancelled.add("child"));
+        grandChild.register(() -> cancelled.add("grandChild"));
+
+        grandChild.cancel();
+        Assert.assertFalse(child.isCancelled());
+        Assert.assertEquals(1, cancelled.size());
+
+        UUCancellationToken other = child.createChild();
+        root.cancel();
+        Assert.assertTrue(child.isCancelled());
+        Assert.assertTrue(other.isCancelled());
+        Assert.assertEquals(2, cancelled.size());
+
+        Assert.assertFalse(root.register(() -> cancelled.add("late")));
+        Assert.assertEquals(3, cancelled.size());
+    }
+
+    @Test
+    public void testBoundRunnable()
+    {
+        UUCancellationToken token = new UUCancellationToken();
+        ArrayList<Runnable> queue = new ArrayList<>();
+        ArrayList<String> ran = new ArrayList<>();
+
+        Runnable first = token.bind(() -> ran.add("first"), queue::remove);
+        Runnable second = token.bind(() -> ran.add("second"), queue::remove);
+        Assert.assertNotNull(first);
+        Assert.assertNotNull(second);
+        queue.add(first);
+        queue.add(second);
+
+        queue.remove(0).run();
+        Assert.assertEquals(1, ran.size());
+
+        token.cancel();
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertNull(token.bind(() -> ran.add("third"), queue::remove));
+        Assert.assertEquals(1, ran.size());
+    }
+
+    @Test
+    public void testUnbindReleasesDroppedWork()
+    {
+        UUCancellationToken token = new UUCancellationToken();
+        ArrayList<Runnable> removed = new ArrayList<>();
+
+        Runnable bound = token.bind(() -> { }, removed::add);
+        Assert.assertNotNull(bound);
+        token.unbind(bound);
+
+        UUExecutor rejecting = new UUExecutor()
+        {
+            @NonNull
+            @Override
+            public String getName()
+            {
+                return "rejecting";
+            }
+
+            @Override
+            public void post(@NonNull final Runnable runnable)
+            {
+                throw new RejectedExecutionException();
+            }
+
+            @Override
+            public void postDelayed(@NonNull final Runnable runnable, final long delayMillis)
+            {
+                throw new RejectedExecutionException();
+            }
+
+            @Override
+            public void removeRunnable(@NonNull final Runnable runnable)
+            {
+                removed.add(runnable);
+            }
+
+            @Override
+            public boolean isCurrentThread()
+            {
+                return false;
+            }
+
+            @Override
+            public boolean isStarted()
+            {
+                return false;
+            }
+
+            @Override
+            public void shutdown()
+            {
+            }
+        };
+
+        try
+        {
+            rejecting.post(token, () -> { });
+            Assert.fail("Expected the post to be rejected");
+        }
+        catch (RejectedExecutionException ex)
+        {
+            // Expected
+        }
+
+        token.cancel();
+        Assert.assertTrue(removed.isEmpty());
+    }
+}
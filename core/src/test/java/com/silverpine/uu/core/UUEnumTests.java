@@ -0,0 +1,36 @@
+package com.silverpine.uu.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class UUEnumTests
+{
+    private enum Color
+    {
+        RED,
+        DARK_GREEN,
+        Blue
+    }
+
+    @Test
+    public void testFromString()
+    {
+        Assert.assertEquals(Color.RED, UUEnum.fromString(Color.class, "RED"));
+        Assert.assertEquals(Color.Blue, UUEnum.fromString(Color.class, "Blue"));
+        Assert.assertNull(UUEnum.fromString(Color.class, "red"));
+        Assert.assertNull(UUEnum.fromString(Color.class, "PURPLE"));
+        Assert.assertNull(UUEnum.fromString(Color.class, null));
+        Assert.assertEquals(Color.Blue, UUEnum.fromString(Color.class, "PURPLE", Color.Blue));
+    }
+
+    @Test
+    public void testFromStringLenient()
+    {
+        Assert.assertEquals(Color.RED, UUEnum.fromStringLenient(Color.class, "red"));
+        Assert.assertEquals(Color.DARK_GREEN, UUEnum.fromStringLenient(Color.class, "darkGreen"));
+        Assert.assertEquals(Color.DARK_GREEN, UUEnum.fromStringLenient(Color.class, "dark-green"));
+        Assert.assertEquals(Color.DARK_GREEN, UUEnum.fromStringLenient(Color.class, "Dark Green"));
+        Assert.assertEquals(Color.Blue, UUEnum.fromStringLenient(Color.class, "BLUE"));
+        Assert.assertEquals(Color.RED, UUEnum.fromStringLenient(Color.class, "PURPLE", Color.RED));
+    }
+}
@@ -0,0 +1,85 @@
+package com.silverpine.uu.core;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class UUErrorTests
+{
+    @Test
+    public void testEqualsAndHashCode()
+    {
+        Exception ex = new IllegalStateException("boom");
+
+        UUError a = new UUError("test", 1, ex);
+        a.addUserInfo("count", 1);
+        a.addUserInfo("name", "value");
+
+        UUError b = new UUError("test", 1, ex);
+        b.addUserInfo("name", "value");
+        b.addUserInfo("count", 1L);
+
+        Assert.assertEquals(a, b);
+        Assert.assertEquals(a.hashCode(), b.hashCode());
+
+        b.addUserInfo("extra", true);
+        Assert.assertNotEquals(a, b);
+
+        Assert.assertNotEquals(new UUError("test", 1), new UUError("test", 2));
+        Assert.assertNotEquals(new UUError("test", 1), new UUError("other", 1));
+    }
+
+    @Test
+    public void testUnderlyingError()
+    {
+        UUError a = new UUError("test", 1, new UUError("inner", 2));
+        UUError b = new UUError("test", 1, new UUError("inner", 2));
+        UUError c = new UUError("test", 1, new UUError("inner", 3));
+
+        Assert.assertEquals(a, b);
+        Assert.assertEquals(a.hashCode(), b.hashCode());
+        Assert.assertNotEquals(a, c);
+    }
+
+    @Test
+    public void testJsonDeepEquals() throws Exception
+    {
+        JSONObject a = new JSONObject();
+        a.put("n", 1);
+        a.put("d", 2.0);
+        a.put("list", new JSONArray().put("x").put(3));
+        a.put("nested", new JSONObject().put("k", JSONObject.NULL));
+
+        JSONObject b = new JSONObject();
+        b.put("nested", new JSONObject().put("k", JSONObject.NULL));
+        b.put("list", new JSONArray().put("x").put(3L));
+        b.put("d", 2);
+        b.put("n", 1.0);
+
+        Assert.assertTrue(UUJson.deepEquals(a, b));
+        Assert.assertEquals(UUJson.deepHashCode(a), UUJson.deepHashCode(b));
+
+        b.put("list", new JSONArray().put(3).put("x"));
+        Assert.assertFalse(UUJson.deepEquals(a, b));
+    }
+
+    @Test
+    public void testJsonLargeNumbers() throws Exception
+    {
+        long big = (1L << 53) + 1;
+
+        JSONObject a = new JSONObject().put("n", big);
+        JSONObject b = new JSONObject().put("n", (double) big);
+        Assert.assertFalse(UUJson.deepEquals(a, b));
+
+        JSONObject c = new JSONObject().put("n", 1L << 53);
+        JSONObject d = new JSONObject().put("n", (double) (1L << 53));
+        Assert.assertTrue(UUJson.deepEquals(c, d));
+        Assert.assertEquals(UUJson.deepHashCode(c), UUJson.deepHashCode(d));
+
+        JSONObject e = new JSONObject().put("n", Long.MAX_VALUE);
+        JSONObject f = new JSONObject().put("n", (double) Long.MAX_VALUE);
+        Assert.assertFalse(UUJson.deepEquals(e, f));
+    }
+}
@@ -0,0 +1,90 @@
+package com.silverpine.uu.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+public class UUObjectTests
+{
+    public static class Counter
+    {
+        public int count = 0;
+
+        public void increment()
+        {
+            ++count;
+        }
+    }
+
+    public static class SubCounter extends Counter
+    {
+        @Override
+        public void increment()
+        {
+            count += 2;
+        }
+    }
+
+    @Test
+    public void testInvokeMethod()
+    {
+        Counter counter = new Counter();
+        UUObject.invokeMethod(counter, "increment");
+        UUObject.invokeMethod(counter, "increment");
+        Assert.assertEquals(2, counter.count);
+
+        // A missing method is logged through UULog, which needs a device, so only check lookup
+        Assert.assertNull(UUObject.findMethod(Counter.class, "doesNotExist"));
+    }
+
+    @Test
+    public void testFindMethodCaching()
+    {
+        Method first = UUObject.findMethod(Counter.class, "increment");
+        Method second = UUObject.findMethod(Counter.class, "increment");
+        Assert.assertNotNull(first);
+        Assert.assertSame(first, second);
+
+        Assert.assertNull(UUObject.findMethod(Counter.class, "doesNotExist"));
+        Assert.assertNull(UUObject.findMethod(Counter.class, "doesNotExist"));
+    }
+
+    @Test
+    public void testSafeCast()
+    {
+        ArrayList<String> list = new ArrayList<>();
+
+        Assert.assertSame(list, UUObject.safeCast(ArrayList.class, list));
+        Assert.assertSame(list, UUObject.safeCast(AbstractList.class, list));
+        Assert.assertSame(list, UUObject.safeCast(List.class, list));
+        Assert.assertSame(list, UUObject.safeCast(Object.class, list));
+        Assert.assertNull(UUObject.safeCast(String.class, list));
+        Assert.assertNull(UUObject.safeCast(String.class, null));
+        Assert.assertNull(UUObject.safeCast(null, list));
+
+        Assert.assertEquals(Integer.valueOf(5), UUObject.safeCast(Integer.class, 5));
+        Assert.assertEquals(Integer.valueOf(5), UUObject.safeCast(int.class, 5));
+        Assert.assertNull(UUObject.safeCast(long.class, 5));
+    }
+
+    @Test
+    public void testInvokeMethodCachesPerClass()
+    {
+        Counter counter = new Counter();
+        SubCounter subCounter = new SubCounter();
+
+        for (int i = 0; i < 3; i++)
+        {
+            UUObject.invokeMethod(counter, "increment");
+            UUObject.invokeMethod(subCounter, "increment");
+        }
+
+        Assert.assertEquals(3, counter.count);
+        Assert.assertEquals(6, subCounter.count);
+        Assert.assertNotSame(UUObject.findMethod(Counter.class, "increment"), UUObject.findMethod(SubCounter.class, "increment"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.silverpine.uu.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+public class UUPromiseTests
+{
+    @Test
+    public void testThenChain()
+    {
+        UUPromise<Integer> source = new UUPromise<>();
+        UUPromise<String> result = source
+            .then(v -> v * 2)
+            .then(v -> "value: " + v);
+
+        Assert.assertFalse(result.isDone());
+        Assert.assertTrue(source.resolve(21));
+        Assert.assertFalse(source.resolve(22));
+        Assert.assertTrue(result.isResolved());
+        Assert.assertEquals("value: 42", result.getValue());
+    }
+
+    @Test
+    public void testErrorPropagation()
+    {
+        UUPromise<Integer> source = new UUPromise<>();
+        UUPromise<Integer> result = source
+            .then(v -> { throw new IllegalStateException("boom"); })
+            .then(v -> 5);
+
+        source.resolve(1);
+        Assert.assertTrue(result.isRejected());
+        Assert.assertTrue(result.getError() instanceof IllegalStateException);
+    }
+
+    @Test
+    public void testCancelPropagation()
+    {
+        UUPromise<Integer> source = new UUPromise<>();
+        UUPromise<Integer> result = source.then(v -> v + 1);
+
+        Assert.assertTrue(source.cancel());
+        Assert.assertTrue(result.isCancelled());
+        Assert.assertTrue(result.getError() instanceof CancellationException);
+    }
+
+    @Test
+    public void testCombine()
+    {
+        UUPromise<Integer> a = new UUPromise<>();
+        UUPromise<Integer> b = new UUPromise<>();
+        UUPromise<Integer> sum = a.combine(b, (x, y) -> x + y);
+        UUPromise<ArrayList<Integer>> all = UUPromise.combine(Arrays.asList(a, b));
+
+        b.resolve(2);
+        Assert.assertFalse(sum.isDone());
+        a.resolve(3);
+        Assert.assertEquals(Integer.valueOf(5), sum.getValue());
+        Assert.assertEquals(Arrays.asList(3, 2), all.getValue());
+    }
+
+    @Test
+    public void testDelegateAdapters()
+    {
+        UUPromise<String> promise = new UUPromise<>();
+        UUObjectDelegate<String> delegate = promise.toObjectDelegate();
+
+        ArrayList<String> delivered = new ArrayList<>();
+        promise.deliver(null, delivered::add);
+
+        delegate.onCompleted("done");
+        Assert.assertEquals("done", promise.getValue());
+        Assert.assertEquals(1, delivered.size());
+        Assert.assertEquals("done", delivered.get(0));
+    }
+}
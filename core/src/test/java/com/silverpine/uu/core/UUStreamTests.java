@@ -0,0 +1,143 @@
+package com.silverpine.uu.core;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class UUStreamTests
+{
+    private static class RecordingDelegate implements UUStreamDelegate<Integer>
+    {
+        private UUStreamSubscription subscription;
+        private final ArrayList<ArrayList<Integer>> chunks = new ArrayList<>();
+        private boolean completed = false;
+        private Exception error = null;
+
+        @Override
+        public void onSubscribe(@NonNull final UUStreamSubscription subscription)
+        {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onChunk(@NonNull final ArrayList<Integer> chunk)
+        {
+            chunks.add(chunk);
+        }
+
+        @Override
+        public void onCompleted()
+        {
+            completed = true;
+        }
+
+        @Override
+        public void onError(@NonNull final Exception error)
+        {
+            this.error = error;
+        }
+    }
+
+    @Test
+    public void testBackpressure()
+    {
+        RecordingDelegate delegate = new RecordingDelegate();
+        UUStreamEmitter<Integer> emitter = new UUStreamEmitter<>(delegate, null);
+
+        emitter.emit(new ArrayList<>(Arrays.asList(1, 2)));
+        emitter.emit(new ArrayList<>(Arrays.asList(3, 4)));
+        emitter.emit(new ArrayList<>(Arrays.asList(5)));
+        emitter.complete();
+
+        Assert.assertEquals(0, delegate.chunks.size());
+
+        delegate.subscription.request(2);
+        Assert.assertEquals(2, delegate.chunks.size());
+        Assert.assertFalse(delegate.completed);
+
+        delegate.subscription.request(1);
+        Assert.assertEquals(3, delegate.chunks.size());
+        Assert.assertTrue(delegate.completed);
+        Assert.assertNull(delegate.error);
+    }
+
+    @Test
+    public void testErrorAndCancel()
+    {
+        RecordingDelegate delegate = new RecordingDelegate();
+        UUStreamEmitter<Integer> emitter = new UUStreamEmitter<>(delegate, null);
+        delegate.subscription.request(10);
+
+        emitter.emit(new ArrayList<>(Arrays.asList(1)));
+        emitter.fail(new IllegalStateException("boom"));
+        Assert.assertEquals(1, delegate.chunks.size());
+        Assert.assertTrue(delegate.error instanceof IllegalStateException);
+        Assert.assertFalse(delegate.completed);
+
+        RecordingDelegate other = new RecordingDelegate();
+        UUStreamEmitter<Integer> second = new UUStreamEmitter<>(other, null);
+        other.subscription.cancel();
+        Assert.assertTrue(second.isCancelled());
+        Assert.assertFalse(second.emit(new ArrayList<>(Arrays.asList(1))));
+        Assert.assertEquals(0, other.chunks.size());
+    }
+
+    @Test
+    public void testCollect()
+    {
+        List<Integer> source = Arrays.asList(1, 2, 3, 4, 5, 6, 7);
+        ArrayList<Integer> result = new ArrayList<>();
+
+        UUStreamEmitter.fromList(source, 3, UUStreamDelegate.collect(result::addAll), null);
+        Assert.assertEquals(source, result);
+    }
+
+    @Test
+    public void testFromListIsLazy()
+    {
+        final int[] reads = new int[1];
+        List<Integer> source = new AbstractList<Integer>()
+        {
+            @Override
+            public Integer get(final int index)
+            {
+                reads[0]++;
+                return index;
+            }
+
+            @Override
+            public int size()
+            {
+                return 10;
+            }
+        };
+
+        RecordingDelegate delegate = new RecordingDelegate();
+        UUStreamEmitter.fromList(source, 2, delegate, null);
+        Assert.assertEquals(0, reads[0]);
+
+        delegate.subscription.request(2);
+        Assert.assertEquals(2, delegate.chunks.size());
+        Assert.assertEquals(4, reads[0]);
+        Assert.assertFalse(delegate.completed);
+
+        delegate.subscription.request(10);
+        Assert.assertEquals(5, delegate.chunks.size());
+        Assert.assertEquals(10, reads[0]);
+        Assert.assertTrue(delegate.completed);
+    }
+
+    @Test
+    public void testFromEmptyListCompletes()
+    {
+        RecordingDelegate delegate = new RecordingDelegate();
+        UUStreamEmitter.fromList(new ArrayList<Integer>(), 2, delegate, null);
+        Assert.assertTrue(delegate.completed);
+    }
+}
@@ -0,0 +1,136 @@
+package com.silverpine.uu.logging;
+
+import android.util.Log;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+
+public class UUBinaryLogTests
+{
+    @Test
+    public void testRoundTrip()
+    {
+        UUBinaryLogWriter writer = new UUBinaryLogWriter();
+        writer.writeRecord(1000L, Log.DEBUG, "com.example.Tag", "connect", new Object[] { "host", "example.com", "port", 443, "secure", true });
+        writer.writeRecord(2000L, Log.ERROR, "com.example.Tag", "connect", new Object[] { "ratio", 0.5, "message", "failed" });
+
+        byte[] data = new byte[writer.getLength()];
+        System.arraycopy(writer.getBuffer(), 0, data, 0, data.length);
+
+        ArrayList<String> lines = UUBinaryLogReader.decode(data);
+        Assert.assertEquals(2, lines.size());
+        Assert.assertEquals("1000 D/com.example.Tag: connect: host=example.com, port=443, secure=true", lines.get(0));
+        Assert.assertEquals("2000 E/com.example.Tag: connect: ratio=0.5, failed", lines.get(1));
+    }
+
+    @Test
+    public void testDictionaryWrittenOnce()
+    {
+        UUBinaryLogWriter writer = new UUBinaryLogWriter();
+        writer.writeRecord(1L, Log.DEBUG, "com.example.Tag", "method", new Object[] { "key", 1 });
+        int first = writer.getLength();
+        writer.reset();
+
+        writer.writeRecord(2L, Log.DEBUG, "com.example.Tag", "method", new Object[] { "key", 2 });
+        int second = writer.getLength();
+
+        Assert.assertTrue(second < first);
+    }
+
+    @Test
+    public void testChunkedDecode()
+    {
+        UUBinaryLogWriter writer = new UUBinaryLogWriter();
+        writer.writeRecord(1L, Log.WARN, "tag", "one", new Object[] { "bytes", new byte[] { 0x01, 0x02 } });
+        writer.writeRecord(2L, Log.WARN, "tag", "two", null);
+
+        byte[] data = new byte[writer.getLength()];
+        System.arraycopy(writer.getBuffer(), 0, data, 0, data.length);
+
+        UUBinaryLogReader reader = new UUBinaryLogReader();
+        ArrayList<String> lines = new ArrayList<>();
+        for (int i = 0; i < data.length; i++)
+        {
+            lines.addAll(reader.append(data, i, 1));
+        }
+
+        Assert.assertEquals(2, lines.size());
+        Assert.assertEquals("1 W/tag: one: bytes=0102", lines.get(0));
+        Assert.assertEquals("2 W/tag: two", lines.get(1));
+    }
+
+    @Test
+    public void testFailedWriteRedefinesDictionary() throws Exception
+    {
+        UUBinaryLogWriter writer = new UUBinaryLogWriter();
+        writer.writeRecord(1L, Log.INFO, "tag", "method", new Object[] { "key", 1 });
+
+        try
+        {
+            writer.writeTo(new OutputStream()
+            {
+                @Override
+                public void write(final int b) throws IOException
+                {
+                    throw new IOException("disk full");
+                }
+            });
+
+            Assert.fail("Expected the write to fail");
+        }
+        catch (IOException ex)
+        {
+            Assert.assertEquals(0, writer.getLength());
+        }
+
+        writer.writeRecord(2L, Log.INFO, "tag", "method", new Object[] { "key", 2 });
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        writer.writeTo(stream);
+
+        ArrayList<String> lines = UUBinaryLogReader.decode(stream.toByteArray());
+        Assert.assertEquals(1, lines.size());
+        Assert.assertEquals("2 I/tag: method: key=2", lines.get(0));
+    }
+
+    @Test
+    public void testFailedEncodeIsRolledBack()
+    {
+        UUBinaryLogWriter writer = new UUBinaryLogWriter();
+        writer.writeRecord(1L, Log.INFO, "tag", "one", null);
+        int length = writer.getLength();
+
+        Object broken = new Object()
+        {
+            @Override
+            public String toString()
+            {
+                throw new IllegalStateException("broken");
+            }
+        };
+
+        try
+        {
+            writer.writeRecord(2L, Log.INFO, "other", "two", new Object[] { "newKey", broken });
+            Assert.fail("Expected the encode to fail");
+        }
+        catch (IllegalStateException ex)
+        {
+            Assert.assertEquals(length, writer.getLength());
+        }
+
+        writer.writeRecord(3L, Log.INFO, "other", "three", new Object[] { "newKey", 3 });
+
+        byte[] data = new byte[writer.getLength()];
+        System.arraycopy(writer.getBuffer(), 0, data, 0, data.length);
+
+        ArrayList<String> lines = UUBinaryLogReader.decode(data);
+        Assert.assertEquals(2, lines.size());
+        Assert.assertEquals("3 I/other: three: newKey=3", lines.get(1));
+    }
+}
@@ -0,0 +1,41 @@
+package com.silverpine.uu.logging;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class UUStackTraceCacheTests
+{
+    private static Exception create(final String message)
+    {
+        return new IllegalStateException(message);
+    }
+
+    @Test
+    public void testIdenticalThrowablesShareEntry()
+    {
+        UUStackTraceCache cache = new UUStackTraceCache(8);
+        cache.setRateLimit(1, 60000);
+
+        // Created on the same line so the stack frames match
+        for (int i = 0; i < 2; i++)
+        {
+            String rendered = cache.renderForLog(create("same"), i);
+            Assert.assertEquals(i == 0, rendered != null);
+        }
+    }
+
+    @Test
+    public void testDifferentThrowablesKeepSeparateEntries()
+    {
+        UUStackTraceCache cache = new UUStackTraceCache(8);
+        cache.setRateLimit(1, 60000);
+
+        String first = cache.renderForLog(create("first"), 0);
+        String second = cache.renderForLog(create("second"), 1);
+
+        Assert.assertNotNull(first);
+        Assert.assertNotNull(second);
+        Assert.assertTrue(first.contains("first"));
+        Assert.assertTrue(second.contains("second"));
+    }
+}